@@ -2,6 +2,12 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.3"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+// -Paot bakes Spring AOT output into bootJar, it is only used when started with -Dspring.aot.enabled=true
+if (providers.gradleProperty("aot").isPresent) {
+    apply(plugin = "org.springframework.boot.aot")
 }
 
 group = "org.example"
@@ -9,7 +15,7 @@ version = "0.0.1-SNAPSHOT"
 
 java {
     toolchain {
-        languageVersion = JavaLanguageVersion.of(17)
+        languageVersion = JavaLanguageVersion.of(providers.gradleProperty("javaVersion").getOrElse("17").toInt())
     }
 }
 
@@ -23,26 +29,86 @@ repositories {
     mavenCentral()
 }
 
+val loadtest: SourceSet by sourceSets.creating
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     annotationProcessor("org.projectlombok:lombok-mapstruct-binding:0.2.0")
     implementation("io.jsonwebtoken:jjwt-api:0.11.5")
-    implementation("com.nimbusds:nimbus-jose-jwt:9.37")
+    implementation(project(":token-verifier"))
+    implementation("org.bouncycastle:bcprov-jdk18on:1.78.1")
     runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
+    implementation("org.flywaydb:flyway-core")
+    implementation("org.flywaydb:flyway-database-postgresql")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
     compileOnly("org.projectlombok:lombok")
     implementation("org.mapstruct:mapstruct:1.5.5.Final")
     annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
     runtimeOnly("org.postgresql:postgresql")
+    runtimeOnly("org.postgresql:r2dbc-postgresql")
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    jmh("org.springframework:spring-test")
+    jmh("org.mockito:mockito-core")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+jmh {
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.set(listOf(it)) }
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs an HTTP load test against a running instance, see README"
+    classpath = loadtest.runtimeClasspath
+    mainClass = "org.example.t1_hw4.loadtest.LoadTest"
+    systemProperties(project.properties.filterKeys { it.startsWith("loadtest.") })
+}
+
+val cdsDirectory = "build/cds"
+val javaLauncher = javaToolchains.launcherFor(java.toolchain)
+
+tasks.register<Exec>("extractBootJar") {
+    group = "build"
+    description = "Extracts the boot jar into build/cds, the layout a CDS archive can be created from"
+    dependsOn(tasks.bootJar)
+    doFirst {
+        executable = javaLauncher.get().executablePath.asFile.path
+        args("-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.path,
+                "extract", "--force", "--destination", cdsDirectory)
+    }
+}
+
+tasks.register<Exec>("cdsArchive") {
+    group = "build"
+    description = "Starts the extracted application once and dumps a class data sharing archive, see README"
+    dependsOn("extractBootJar")
+    val aot = providers.gradleProperty("aot").isPresent
+    doFirst {
+        executable = javaLauncher.get().executablePath.asFile.path
+        args(listOfNotNull(
+                "-XX:ArchiveClassesAtExit=$cdsDirectory/application.jsa",
+                "-Dspring.context.exit=onRefresh",
+                if (aot) "-Dspring.aot.enabled=true" else null,
+                "-jar", "$cdsDirectory/${project.name}-${project.version}.jar"
+        ))
+    }
+}
@@ -1 +1,3 @@
 rootProject.name = "t1_hw4"
+
+include("token-verifier")
@@ -0,0 +1,81 @@
+package org.example.t1_hw4.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.t1_hw4.jwt.*;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.token.JwtKeyRing;
+import org.example.t1_hw4.token.TokenProfile;
+import org.example.t1_hw4.repository.RevokedTokenRepository;
+import org.example.t1_hw4.repository.UserRepository;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+final class JwtFixtures {
+
+    static final TokenSubject SUBJECT = new TokenSubject("benchmark-user", 1, 0, UserRole.PREMIUM_USER);
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtFixtures() {
+    }
+
+    static JwtTokenProvider tokenProvider(TokenProfile profile, boolean cacheEnabled) throws Exception {
+        return tokenProvider(profile, cacheEnabled, true);
+    }
+
+    // an empty composite registry hands out no-op meters, which gives the uninstrumented baseline
+    static JwtTokenProvider tokenProvider(TokenProfile profile, boolean cacheEnabled, boolean metricsEnabled)
+            throws Exception {
+        MeterRegistry meterRegistry = metricsEnabled ? new SimpleMeterRegistry() : new CompositeMeterRegistry();
+
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "enabled", cacheEnabled);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10_000);
+
+        TokenRevocationStore store = new TokenRevocationStore();
+        ReflectionTestUtils.setField(store, "bucketMs", 60_000L);
+
+        TokenRevocationService revocationService =
+                new TokenRevocationService(store, Mockito.mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(revocationService, "bloomExpectedInsertions", 100_000L);
+        ReflectionTestUtils.setField(revocationService, "bloomFpp", 0.01);
+        ReflectionTestUtils.setField(revocationService, "syncOverlap", 100L);
+        revocationService.init();
+
+        UserTokenEpochs userTokenEpochs = new UserTokenEpochs(
+                Mockito.mock(UserRepository.class), Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(userTokenEpochs, "syncOverlapMs", 5_000L);
+        ReflectionTestUtils.setField(userTokenEpochs, "refreshExpirationMs", 604_800_000L);
+        userTokenEpochs.init();
+
+        JwtTokenProvider provider = new JwtTokenProvider(cache, revocationService, userTokenEpochs, meterRegistry);
+        ReflectionTestUtils.setField(provider, "jwtPath", secretFile().toString());
+        ReflectionTestUtils.setField(provider, "accessExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(provider, "refreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.setField(provider, "keyReloadEnabled", false);
+        ReflectionTestUtils.setField(provider, "tokenProfile", profile);
+        ReflectionTestUtils.setField(provider, "acceptedProfiles", EnumSet.allOf(TokenProfile.class));
+        provider.init();
+        return provider;
+    }
+
+    static JwtKeyRing keyRing() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(secretFile(), 604_800_000L);
+        keyRing.reload();
+        return keyRing;
+    }
+
+    private static Path secretFile() throws IOException {
+        Path file = Files.createTempFile("jwt-secret", "");
+        file.toFile().deleteOnExit();
+        return Files.writeString(file, SECRET);
+    }
+}
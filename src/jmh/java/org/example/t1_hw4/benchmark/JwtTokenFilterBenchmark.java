@@ -0,0 +1,49 @@
+package org.example.t1_hw4.benchmark;
+
+import jakarta.servlet.FilterChain;
+import org.example.t1_hw4.jwt.JwtTokenFilter;
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.token.TokenProfile;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class JwtTokenFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"false", "true"})
+    public boolean metricsEnabled;
+
+    private JwtTokenFilter filter;
+    private String authorizationHeader;
+    private final FilterChain chain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtTokenProvider provider = JwtFixtures.tokenProvider(TokenProfile.NESTED_JWE, cacheEnabled, metricsEnabled);
+        filter = new JwtTokenFilter(provider);
+        authorizationHeader = "Bearer " + provider.generateAccessToken(JwtFixtures.SUBJECT);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/profile");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.jwt.JwtPrincipal;
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.token.TokenProfile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class JwtTokenProviderBenchmark {
+
+    @Param({"NESTED_JWE", "JWE_GCM", "JWS"})
+    public TokenProfile profile;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private JwtTokenProvider provider;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        provider = JwtFixtures.tokenProvider(profile, cacheEnabled);
+        accessToken = provider.generateAccessToken(JwtFixtures.SUBJECT);
+    }
+
+    // reported next to the timing of generateAccessToken; their ratio is the token size of the profile
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TokenSize {
+        public long accessTokenBytes;
+        public long accessTokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            accessTokenBytes = 0;
+            accessTokens = 0;
+        }
+    }
+
+    @Benchmark
+    public String generateAccessToken(TokenSize size) {
+        String token = provider.generateAccessToken(JwtFixtures.SUBJECT);
+        size.accessTokenBytes += token.length();
+        size.accessTokens++;
+        return token;
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return provider.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return provider.getUsernameFromToken(accessToken);
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> resolvePrincipal() {
+        return provider.resolvePrincipal(accessToken);
+    }
+
+    @Benchmark
+    public void validateThenReadClaims(Blackhole blackhole) {
+        if (provider.validateToken(accessToken)) {
+            blackhole.consume(provider.getUsernameFromToken(accessToken));
+            blackhole.consume(provider.getRoleFromToken(accessToken));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.config.EncodersConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class PasswordEncoderBenchmark {
+
+    private PasswordEncoder passwordEncoder;
+    private String digest;
+
+    @Setup
+    public void setUp() {
+        EncodersConfig encodersConfig = new EncodersConfig();
+        ReflectionTestUtils.setField(encodersConfig, "encodingId", "bcrypt");
+        ReflectionTestUtils.setField(encodersConfig, "targetHashMs", 250L);
+        ReflectionTestUtils.setField(encodersConfig, "minBCryptStrength", 10);
+        ReflectionTestUtils.setField(encodersConfig, "maxBCryptStrength", 14);
+        passwordEncoder = encodersConfig.passwordEncoder();
+        digest = passwordEncoder.encode("12345678");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("12345678", digest);
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private RateLimiter limiter;
+
+    @State(Scope.Thread)
+    public static class ClientKey {
+        String key;
+
+        @Setup
+        public void setUp() {
+            key = "10.0.0." + THREAD_IDS.incrementAndGet();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, 100_000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long uncontended(ClientKey clientKey) {
+        return limiter.tryAcquire(clientKey.key, System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long distinctKeys(ClientKey clientKey) {
+        return limiter.tryAcquire(clientKey.key, System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long sameKey() {
+        return limiter.tryAcquire("10.0.0.0", System.nanoTime());
+    }
+}
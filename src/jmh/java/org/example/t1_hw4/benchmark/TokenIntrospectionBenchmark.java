@@ -0,0 +1,53 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.dto.IntrospectionResultDTO;
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.token.TokenProfile;
+import org.example.t1_hw4.service.TokenIntrospectionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throughput is reported in batches per second; multiply by batchSize for tokens per second.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class TokenIntrospectionBenchmark {
+
+    @Param({"1", "16", "128", "1024"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private TokenIntrospectionService service;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtTokenProvider provider = JwtFixtures.tokenProvider(TokenProfile.NESTED_JWE, cacheEnabled);
+        service = new TokenIntrospectionService(provider);
+        ReflectionTestUtils.setField(service, "parallelThreshold", 16);
+        ReflectionTestUtils.setField(service, "maxCacheTtlSeconds", 30L);
+        service.init();
+
+        tokens = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            tokens.add(provider.generateAccessToken(JwtFixtures.SUBJECT));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public List<IntrospectionResultDTO> introspect() {
+        return service.introspect(tokens);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.token.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// The standalone verifier as a downstream service would embed it: no cache, no metrics, no Spring.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class TokenVerifierBenchmark {
+
+    @Param({"NESTED_JWE", "JWE_GCM", "JWS"})
+    public TokenProfile profile;
+
+    private TokenVerifier verifier;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtKeyRing keyRing = JwtFixtures.keyRing();
+        verifier = new TokenVerifier(keyRing, EnumSet.allOf(TokenProfile.class));
+        accessToken = new TokenIssuer(keyRing, profile).issue("benchmark-user", "PREMIUM_USER", 1, 0, 900_000L);
+    }
+
+    @Benchmark
+    public Optional<TokenClaims> validate() {
+        return verifier.validate(accessToken, System.currentTimeMillis());
+    }
+}
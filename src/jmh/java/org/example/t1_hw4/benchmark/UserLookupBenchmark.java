@@ -0,0 +1,63 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.T1Hw4Application;
+import org.example.t1_hw4.dto.UserCredentials;
+import org.example.t1_hw4.model.User;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class UserLookupBenchmark {
+
+    private static final String LOGIN = "benchmark-lookup";
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(T1Hw4Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off");
+        userRepository = context.getBean(UserRepository.class);
+        if (!userRepository.existsByLogin(LOGIN)) {
+            User user = new User();
+            user.setLogin(LOGIN);
+            user.setEmail(LOGIN + "@example.org");
+            user.setPasswordDigest("{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6Tqz3u6CpTbGrU7LsZCnq3u");
+            user.setRole(UserRole.GUEST);
+            userRepository.save(user);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        userRepository.deleteByLogin(LOGIN);
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findEntity() {
+        return userRepository.findByLogin(LOGIN);
+    }
+
+    @Benchmark
+    public Optional<UserCredentials> findCredentials() {
+        return userRepository.findCredentialsByLogin(LOGIN);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return userRepository.existsByLogin(LOGIN);
+    }
+}
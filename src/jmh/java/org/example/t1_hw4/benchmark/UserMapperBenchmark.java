@@ -0,0 +1,34 @@
+package org.example.t1_hw4.benchmark;
+
+import org.example.t1_hw4.dto.UserDTO;
+import org.example.t1_hw4.mapper.UserMapper;
+import org.example.t1_hw4.mapper.UserMapperImpl;
+import org.example.t1_hw4.model.User;
+import org.example.t1_hw4.model.UserRole;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class UserMapperBenchmark {
+
+    private UserMapper userMapper;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapperImpl();
+        user = new User();
+        user.setLogin("benchmark-user");
+        user.setEmail("benchmark@example.org");
+        user.setRole(UserRole.PREMIUM_USER);
+    }
+
+    @Benchmark
+    public UserDTO toUserDTO() {
+        return userMapper.toUserDTO(user);
+    }
+}
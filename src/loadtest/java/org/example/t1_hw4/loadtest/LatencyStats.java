@@ -0,0 +1,61 @@
+package org.example.t1_hw4.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+class LatencyStats {
+
+    private final String name;
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    LatencyStats(String name, int capacity) {
+        this.name = name;
+        this.latencies = new long[capacity];
+    }
+
+    long start() {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return System.nanoTime();
+    }
+
+    void stop(long startedAt, int status) {
+        long elapsed = System.nanoTime() - startedAt;
+        inFlight.decrementAndGet();
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = elapsed;
+        }
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void print(long wallNanos) {
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, adder) -> byStatus.put(status, adder.sum()));
+
+        System.out.printf("%s: %d requests in %.1f s, %.1f req/s, max in flight %d%n",
+                name, count, wallNanos / 1e9, count / (wallNanos / 1e9), maxInFlight.get());
+        System.out.printf("%s: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms, statuses %s%n",
+                name, percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                percentile(sorted, 1.0), byStatus);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
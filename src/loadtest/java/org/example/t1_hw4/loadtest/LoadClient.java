@@ -0,0 +1,62 @@
+package org.example.t1_hw4.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class LoadClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+
+    LoadClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    HttpResponse<String> register(String login, String password) throws IOException, InterruptedException {
+        return post("/register", "{\"login\":\"" + login + "\",\"password\":\"" + password
+                + "\",\"email\":\"" + login + "@loadtest.local\",\"role\":\"GUEST\"}", null);
+    }
+
+    HttpResponse<String> login(String login, String password) throws IOException, InterruptedException {
+        return post("/login", "{\"login\":\"" + login + "\",\"password\":\"" + password + "\"}", null);
+    }
+
+    HttpResponse<String> refresh(String refreshToken) throws IOException, InterruptedException {
+        return post("/refresh", "{\"refreshToken\":\"" + refreshToken + "\"}", null);
+    }
+
+    HttpResponse<String> get(String path, String accessToken) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    HttpResponse<String> post(String path, String json, String accessToken) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    static String jsonField(String json, String field) {
+        Matcher matcher = Pattern.compile("\"" + field + "\"\\s*:\\s*\"([^\"]*)\"").matcher(json);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.t1_hw4.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadTest {
+
+    private final LoadClient client;
+    private final int concurrency;
+    private final int requests;
+    private final String login;
+    private final String password;
+
+    LoadTest() {
+        this.client = new LoadClient(System.getProperty("loadtest.baseUrl", "http://localhost:8080"));
+        this.concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        this.requests = Integer.getInteger("loadtest.requests", 5000);
+        this.login = System.getProperty("loadtest.login", "loadtest-user");
+        this.password = System.getProperty("loadtest.password", "loadtest-password");
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest();
+        String scenario = System.getProperty("loadtest.scenario", "login");
+        switch (scenario) {
+            case "login" -> loadTest.login();
+            case "refresh" -> loadTest.refresh();
+            case "storm" -> loadTest.storm();
+            case "startup" -> loadTest.startup();
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    void login() throws Exception {
+        ensureUser();
+        LatencyStats stats = new LatencyStats("login", requests);
+        run(stats, requests, () -> client.login(login, password));
+    }
+
+    void refresh() throws Exception {
+        ensureUser();
+        Queue<String> refreshTokens = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < concurrency; i++) {
+            HttpResponse<String> response = client.login(login, password);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not log in the load test user, status " + response.statusCode());
+            }
+            refreshTokens.add(LoadClient.jsonField(response.body(), "refreshToken"));
+        }
+
+        LatencyStats stats = new LatencyStats("refresh", requests);
+        run(stats, requests, () -> {
+            String refreshToken = refreshTokens.poll();
+            String next = refreshToken;
+            try {
+                HttpResponse<String> response = client.refresh(refreshToken);
+                if (response.statusCode() == 200) {
+                    next = LoadClient.jsonField(response.body(), "refreshToken");
+                }
+                return response;
+            } finally {
+                refreshTokens.add(next);
+            }
+        });
+    }
+
+    // Measures token-authenticated calls while a login storm saturates the expensive pool;
+    // with the adaptive limit the storm sheds 503s and the authenticated p99 should stay flat.
+    void storm() throws Exception {
+        ensureUser();
+        HttpResponse<String> loginResponse = client.login(login, password);
+        String accessToken = LoadClient.jsonField(loginResponse.body(), "accessToken");
+
+        int stormConcurrency = Integer.getInteger("loadtest.stormConcurrency", concurrency * 2);
+        AtomicBoolean storming = new AtomicBoolean(true);
+        LatencyStats stormStats = new LatencyStats("login storm", 1_000_000);
+        ExecutorService stormWorkers = Executors.newFixedThreadPool(stormConcurrency);
+        for (int i = 0; i < stormConcurrency; i++) {
+            stormWorkers.submit(() -> {
+                while (storming.get()) {
+                    long requestStartedAt = stormStats.start();
+                    int status;
+                    try {
+                        status = client.login(login, password).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    stormStats.stop(requestStartedAt, status);
+                }
+            });
+        }
+
+        long stormStartedAt = System.nanoTime();
+        try {
+            LatencyStats stats = new LatencyStats("authenticated", requests);
+            run(stats, requests, () -> client.get("/actuator/health", accessToken));
+        } finally {
+            storming.set(false);
+            stormWorkers.shutdown();
+            stormWorkers.awaitTermination(1, TimeUnit.MINUTES);
+            stormStats.print(System.nanoTime() - stormStartedAt);
+        }
+    }
+
+    // Starts the application from loadtest.command, polls /login until it succeeds and stops it again.
+    // The first, unmeasured start only makes sure the load test user exists.
+    void startup() throws Exception {
+        String command = System.getProperty("loadtest.command");
+        if (command == null) {
+            throw new IllegalArgumentException("loadtest.command is required for the startup scenario");
+        }
+        int runs = Integer.getInteger("loadtest.runs", 5);
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("loadtest.startTimeoutSeconds", 120));
+
+        App setup = start(command);
+        try {
+            awaitHttp(setup, System.nanoTime() + timeoutNanos);
+            ensureUser();
+        } finally {
+            stop(setup);
+        }
+
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long startedAt = System.nanoTime();
+            App app = start(command);
+            try {
+                awaitLogin(app, startedAt + timeoutNanos);
+                millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                System.out.printf("run %d: first successful /login after %d ms%n", i + 1, millis[i]);
+            } finally {
+                stop(app);
+            }
+        }
+        Arrays.sort(millis);
+        System.out.printf("time to first /login: min %d ms, median %d ms, max %d ms%n",
+                millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    // The command goes through the shell so that quoted arguments survive; the output is kept in a file
+    // and shown when the application dies or does not come up in time.
+    private App start(String command) throws IOException {
+        Path output = Files.createTempFile("loadtest-app-", ".log");
+        Process process = new ProcessBuilder("sh", "-c", command)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        return new App(process, output);
+    }
+
+    private void stop(App app) throws InterruptedException, IOException {
+        // sh may fork the JVM instead of exec-ing it, so the children are stopped as well
+        app.process().descendants().forEach(ProcessHandle::destroy);
+        app.process().destroy();
+        if (!app.process().waitFor(30, TimeUnit.SECONDS)) {
+            app.process().descendants().forEach(ProcessHandle::destroyForcibly);
+            app.process().destroyForcibly().waitFor();
+        }
+        Files.deleteIfExists(app.output());
+    }
+
+    private void awaitHttp(App app, long deadline) throws InterruptedException, IOException {
+        while (true) {
+            try {
+                client.get("/actuator/health", null);
+                return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            checkStarting(app, deadline, "an HTTP response");
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitLogin(App app, long deadline) throws InterruptedException, IOException {
+        while (true) {
+            try {
+                if (client.login(login, password).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            checkStarting(app, deadline, "a successful /login");
+            Thread.sleep(10);
+        }
+    }
+
+    private void checkStarting(App app, long deadline, String awaited) throws IOException {
+        if (!app.process().isAlive()) {
+            throw new IllegalStateException("The application exited with code " + app.process().exitValue()
+                    + " before " + awaited + ", its output:\n" + app.readOutput());
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new IllegalStateException("The application gave no " + awaited
+                    + " within loadtest.startTimeoutSeconds, its output:\n" + app.readOutput());
+        }
+    }
+
+    private record App(Process process, Path output) {
+
+        // lenient about the encoding, a JVM crash log is not guaranteed to be valid UTF-8
+        String readOutput() throws IOException {
+            return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+        }
+    }
+
+    void ensureUser() throws Exception {
+        int status = client.register(login, password).statusCode();
+        if (status != 201 && status != 409) {
+            throw new IllegalStateException("Could not register the load test user, status " + status);
+        }
+    }
+
+    void run(LatencyStats stats, int total, Call call) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(total);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    long requestStartedAt = stats.start();
+                    int status;
+                    try {
+                        status = call.execute().statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    stats.stop(requestStartedAt, status);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        stats.print(System.nanoTime() - startedAt);
+        workers.shutdown();
+    }
+
+    @FunctionalInterface
+    interface Call {
+        HttpResponse<String> execute() throws Exception;
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.t1_hw4.audit;
+
+public enum AuditOverflowPolicy {
+    DROP_NEWEST,
+    DROP_OLDEST,
+    BLOCK
+}
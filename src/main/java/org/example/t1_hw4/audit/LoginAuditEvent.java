@@ -0,0 +1,23 @@
+package org.example.t1_hw4.audit;
+
+import java.time.Instant;
+
+public record LoginAuditEvent(Type type, String outcome, String login, Long userId, String clientIp, Instant occurredAt) {
+
+    public enum Type {
+        LOGIN,
+        REFRESH
+    }
+
+    public static LoginAuditEvent login(String outcome, String login, Long userId, String clientIp) {
+        return new LoginAuditEvent(Type.LOGIN, outcome, login, userId, clientIp, Instant.now());
+    }
+
+    public static LoginAuditEvent refresh(String outcome, String login, Long userId, String clientIp) {
+        return new LoginAuditEvent(Type.REFRESH, outcome, login, userId, clientIp, Instant.now());
+    }
+
+    public boolean isSuccessfulLogin() {
+        return type == Type.LOGIN && "success".equals(outcome) && userId != null;
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.t1_hw4.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.t1_hw4.repository.LoginAuditRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LoginAuditPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAuditPipeline.class);
+
+    @Value("${app.audit.enabled}")
+    private boolean enabled;
+
+    @Value("${app.audit.capacity}")
+    private int capacity;
+
+    @Value("${app.audit.batch-size}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.overflow-policy}")
+    private AuditOverflowPolicy overflowPolicy;
+
+    @Value("${app.audit.block-timeout-ms}")
+    private long blockTimeoutMs;
+
+    private final LoginAuditRepository loginAuditRepository;
+    private final MeterRegistry meterRegistry;
+
+    private ArrayBlockingQueue<LoginAuditEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter published;
+    private Counter dropped;
+    private Counter written;
+    private Counter writeFailures;
+    private Timer flushTimer;
+
+    public LoginAuditPipeline(LoginAuditRepository loginAuditRepository, MeterRegistry meterRegistry) {
+        this.loginAuditRepository = loginAuditRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(capacity);
+
+        published = Counter.builder("auth.audit.published").register(meterRegistry);
+        dropped = Counter.builder("auth.audit.dropped")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        written = Counter.builder("auth.audit.written").register(meterRegistry);
+        writeFailures = Counter.builder("auth.audit.write.failures").register(meterRegistry);
+        flushTimer = Timer.builder("auth.audit.flush").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("auth.audit.buffer.size", buffer, ArrayBlockingQueue::size).register(meterRegistry);
+        Gauge.builder("auth.audit.buffer.capacity", buffer, queue -> capacity).register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "login-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        // not interrupted: an interrupt during a JDBC call would lose the batch being written,
+        // the writer notices the flag within one flush interval and drains the buffer
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10) + flushIntervalMs);
+    }
+
+    public void publish(LoginAuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        published.increment();
+        if (buffer.offer(event)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> {
+                // another producer may refill the freed slot first, the loop keeps the newest event either way
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case BLOCK -> {
+                try {
+                    if (!buffer.offer(event, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        dropped.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        List<LoginAuditEvent> batch = new ArrayList<>(batchSize);
+        Map<Long, Instant> lastLogins = new HashMap<>();
+        long nextLastLoginFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                LoginAuditEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                for (LoginAuditEvent event : batch) {
+                    if (event.isSuccessfulLogin()) {
+                        lastLogins.merge(event.userId(), event.occurredAt(), (a, b) -> a.isAfter(b) ? a : b);
+                    }
+                }
+                write(batch);
+                batch.clear();
+            }
+
+            long now = System.nanoTime();
+            if (!lastLogins.isEmpty() && (now - nextLastLoginFlush >= 0 || !running)) {
+                writeLastLogins(lastLogins);
+                lastLogins.clear();
+                nextLastLoginFlush = now + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+            }
+        }
+    }
+
+    private void write(List<LoginAuditEvent> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            loginAuditRepository.insertAll(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            writeFailures.increment(batch.size());
+            log.warn("Failed to write {} login audit events", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeLastLogins(Map<Long, Instant> lastLogins) {
+        try {
+            loginAuditRepository.updateLastLogins(lastLogins);
+        } catch (RuntimeException e) {
+            log.warn("Failed to update last login time for {} users", lastLogins.size(), e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.t1_hw4.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.t1_hw4.jwt.TokenRevocationService;
+import org.example.t1_hw4.jwt.UserTokenEpochs;
+import org.example.t1_hw4.jwt.VerifiedTokenCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AuthMetricsConfig {
+
+    @Bean
+    public MeterBinder tokenStateMetrics(VerifiedTokenCache cache,
+                                         TokenRevocationService revocationService,
+                                         UserTokenEpochs userTokenEpochs) {
+        return registry -> {
+            FunctionCounter.builder("auth.token.cache.requests", cache, VerifiedTokenCache::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("auth.token.cache.requests", cache, VerifiedTokenCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("auth.token.cache.evictions", cache, VerifiedTokenCache::getEvictions)
+                    .register(registry);
+            Gauge.builder("auth.token.cache.size", cache, VerifiedTokenCache::size)
+                    .register(registry);
+            Gauge.builder("auth.token.revoked.size", revocationService, TokenRevocationService::size)
+                    .register(registry);
+            Gauge.builder("auth.token.epochs.size", userTokenEpochs, UserTokenEpochs::size)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.t1_hw4.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.t1_hw4.ratelimit.AdaptiveConcurrencyFilter;
+import org.example.t1_hw4.ratelimit.AdaptiveConcurrencyLimit;
+import org.example.t1_hw4.ratelimit.ReactiveAdaptiveConcurrencyFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Value("${app.concurrency-limit.enabled}")
+    private boolean enabled;
+
+    @Value("${app.concurrency-limit.expensive.initial}")
+    private int expensiveInitial;
+
+    @Value("${app.concurrency-limit.expensive.min}")
+    private int expensiveMin;
+
+    @Value("${app.concurrency-limit.expensive.max}")
+    private int expensiveMax;
+
+    @Value("${app.concurrency-limit.expensive.target-latency-ms}")
+    private long expensiveTargetLatencyMs;
+
+    @Value("${app.concurrency-limit.cheap.initial}")
+    private int cheapInitial;
+
+    @Value("${app.concurrency-limit.cheap.min}")
+    private int cheapMin;
+
+    @Value("${app.concurrency-limit.cheap.max}")
+    private int cheapMax;
+
+    @Value("${app.concurrency-limit.cheap.target-latency-ms}")
+    private long cheapTargetLatencyMs;
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilter(MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimit expensive = expensiveLimit(meterRegistry);
+        AdaptiveConcurrencyLimit cheap = cheapLimit(meterRegistry);
+        Counter rejected = Counter.builder("auth.concurrency.rejected").register(meterRegistry);
+
+        FilterRegistrationBean<AdaptiveConcurrencyFilter> registration = new FilterRegistrationBean<>(
+                new AdaptiveConcurrencyFilter(expensive, cheap, rejected::increment));
+        registration.setEnabled(enabled);
+        registration.setAsyncSupported(true);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    // WebFlux picks up every WebFilter bean, so a disabled limit is simply not registered
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true")
+    public ReactiveAdaptiveConcurrencyFilter reactiveAdaptiveConcurrencyFilter(MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("auth.concurrency.rejected").register(meterRegistry);
+        return new ReactiveAdaptiveConcurrencyFilter(
+                expensiveLimit(meterRegistry), cheapLimit(meterRegistry), rejected::increment);
+    }
+
+    private AdaptiveConcurrencyLimit expensiveLimit(MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimit expensive = new AdaptiveConcurrencyLimit(
+                expensiveInitial, expensiveMin, expensiveMax, TimeUnit.MILLISECONDS.toNanos(expensiveTargetLatencyMs));
+        bindMetrics(meterRegistry, "expensive", expensive);
+        return expensive;
+    }
+
+    private AdaptiveConcurrencyLimit cheapLimit(MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimit cheap = new AdaptiveConcurrencyLimit(
+                cheapInitial, cheapMin, cheapMax, TimeUnit.MILLISECONDS.toNanos(cheapTargetLatencyMs));
+        bindMetrics(meterRegistry, "cheap", cheap);
+        return cheap;
+    }
+
+    private void bindMetrics(MeterRegistry meterRegistry, String pool, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("auth.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("auth.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+}
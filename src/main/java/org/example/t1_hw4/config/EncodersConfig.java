@@ -1,14 +1,70 @@
 package org.example.t1_hw4.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class EncodersConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(EncodersConfig.class);
+
+    @Value("${app.password.encoding-id}")
+    private String encodingId;
+
+    @Value("${app.password.target-hash-ms}")
+    private long targetHashMs;
+
+    @Value("${app.password.bcrypt.min-strength}")
+    private int minBCryptStrength;
+
+    @Value("${app.password.bcrypt.max-strength}")
+    private int maxBCryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = calibrateBCryptStrength();
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
+    }
+
+    // BCrypt doubles its work with every strength step, so one measurement at the
+    // minimum strength is enough to pick the highest strength within the budget.
+    private int calibrateBCryptStrength() {
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minBCryptStrength);
+        long elapsedNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            elapsedNanos = Math.min(elapsedNanos, System.nanoTime() - start);
+        }
+
+        double elapsedMs = Math.max(elapsedNanos / 1_000_000.0, 0.001);
+        int steps = (int) Math.floor(Math.log(targetHashMs / elapsedMs) / Math.log(2));
+        int strength = Math.max(minBCryptStrength, Math.min(maxBCryptStrength, minBCryptStrength + steps));
+
+        log.info("BCrypt strength {} selected ({} ms at strength {}, target {} ms)",
+                strength, String.format("%.1f", elapsedMs), minBCryptStrength, targetHashMs);
+        return strength;
     }
 }
@@ -0,0 +1,52 @@
+package org.example.t1_hw4.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.t1_hw4.ratelimit.ClientAddressResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Actuator endpoints other than health are served on the public port, so they are only opened to the networks
+// in app.management.allowed-networks (the Prometheus scraper), checked against the resolved client address.
+@Component
+public class ManagementNetworks {
+
+    private final List<IpAddressMatcher> allowedNetworks;
+    private final ClientAddressResolver clientAddressResolver;
+
+    public ManagementNetworks(@Value("${app.management.allowed-networks}") List<String> allowedNetworks,
+                              ClientAddressResolver clientAddressResolver) {
+        this.allowedNetworks = allowedNetworks.stream()
+                .filter(network -> !network.isBlank())
+                .map(network -> new IpAddressMatcher(network.trim()))
+                .toList();
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    public boolean allows(HttpServletRequest request) {
+        return allows(clientAddressResolver.resolve(request));
+    }
+
+    public boolean allows(ServerHttpRequest request) {
+        return allows(clientAddressResolver.resolve(request));
+    }
+
+    private boolean allows(String clientAddress) {
+        if (clientAddress == null) {
+            return false;
+        }
+        try {
+            for (IpAddressMatcher network : allowedNetworks) {
+                if (network.matches(clientAddress)) {
+                    return true;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // a proxy passed something other than an IP literal, e.g. "unknown"
+        }
+        return false;
+    }
+}
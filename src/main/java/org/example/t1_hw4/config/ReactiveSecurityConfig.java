@@ -0,0 +1,72 @@
+package org.example.t1_hw4.config;
+
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.jwt.ReactiveJwtTokenFilter;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.ratelimit.ClientAddressResolver;
+import org.example.t1_hw4.ratelimit.RateLimiters;
+import org.example.t1_hw4.ratelimit.ReactiveRateLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RateLimiters rateLimiters;
+    private final ClientAddressResolver clientAddressResolver;
+    private final ManagementNetworks managementNetworks;
+
+    public ReactiveSecurityConfig(JwtTokenProvider jwtTokenProvider,
+                                   RateLimiters rateLimiters,
+                                   ClientAddressResolver clientAddressResolver,
+                                   ManagementNetworks managementNetworks) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.rateLimiters = rateLimiters;
+        this.clientAddressResolver = clientAddressResolver;
+        this.managementNetworks = managementNetworks;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        http
+                .csrf(csrf -> csrf.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers(HttpMethod.POST, "/login", "/register", "/refresh").permitAll()
+                        .pathMatchers("/actuator/health").authenticated()
+                        .pathMatchers("/actuator/**").access((authentication, context) ->
+                                Mono.just(new AuthorizationDecision(
+                                        managementNetworks.allows(context.getExchange().getRequest()))))
+                        .pathMatchers(HttpMethod.POST, "/admin/tokens/introspect")
+                        .hasRole(UserRole.TOKEN_INTROSPECTOR.name())
+                        .pathMatchers(HttpMethod.GET, "/admin/revocations")
+                        .hasRole(UserRole.TOKEN_INTROSPECTOR.name())
+                        .pathMatchers("/admin/**").hasRole(UserRole.ADMIN.name())
+                        .anyExchange().authenticated()
+                )
+                .addFilterBefore(new ReactiveRateLimitFilter(rateLimiters, clientAddressResolver),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterAt(new ReactiveJwtTokenFilter(jwtTokenProvider), SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
+                .httpBasic(httpBasic -> httpBasic.disable())
+                .formLogin(formLogin -> formLogin.disable())
+                .logout(logout -> logout.disable());
+        return http.build();
+    }
+}
@@ -2,10 +2,16 @@ package org.example.t1_hw4.config;
 
 import org.example.t1_hw4.jwt.JwtTokenFilter;
 import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.ratelimit.RateLimitFilter;
+import org.example.t1_hw4.ratelimit.ClientAddressResolver;
+import org.example.t1_hw4.ratelimit.RateLimiters;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -15,12 +21,22 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final RateLimiters rateLimiters;
+    private final ClientAddressResolver clientAddressResolver;
+    private final ManagementNetworks managementNetworks;
 
-    public SecurityConfig(JwtTokenProvider jwtTokenProvider) {
+    public SecurityConfig(JwtTokenProvider jwtTokenProvider,
+                           RateLimiters rateLimiters,
+                           ClientAddressResolver clientAddressResolver,
+                           ManagementNetworks managementNetworks) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.rateLimiters = rateLimiters;
+        this.clientAddressResolver = clientAddressResolver;
+        this.managementNetworks = managementNetworks;
     }
 
     @Bean
@@ -31,9 +47,19 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/login", "/register", "/refresh").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").authenticated()
+                        .requestMatchers("/actuator/**").access((authentication, context) ->
+                                new AuthorizationDecision(managementNetworks.allows(context.getRequest())))
+                        .requestMatchers(HttpMethod.POST, "/admin/tokens/introspect")
+                        .hasRole(UserRole.TOKEN_INTROSPECTOR.name())
+                        .requestMatchers(HttpMethod.GET, "/admin/revocations")
+                        .hasRole(UserRole.TOKEN_INTROSPECTOR.name())
+                        .requestMatchers("/admin/**").hasRole(UserRole.ADMIN.name())
                         .anyRequest().authenticated()
                 )
 
+                .addFilterBefore(new RateLimitFilter(rateLimiters, clientAddressResolver),
+                        UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(new JwtTokenFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling(exceptions -> exceptions
                         .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
@@ -0,0 +1,66 @@
+package org.example.t1_hw4.controller;
+
+import jakarta.validation.Valid;
+import org.example.t1_hw4.dto.LoginDTO;
+import org.example.t1_hw4.dto.RefreshDTO;
+import org.example.t1_hw4.dto.RegisterDTO;
+import org.example.t1_hw4.ratelimit.ClientAddressResolver;
+import org.example.t1_hw4.service.AuthService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+// WebFlux variant of UserController over the same AuthService. Users go through the R2DBC UserStore, the
+// blocking JDBC steps (refresh tokens, revocation) go to the continuation pool through AuthService.offload,
+// so nothing blocks the event loop.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestBody @Valid Mono<RegisterDTO> body) {
+        return body
+                .flatMap(dto -> Mono.fromFuture(() -> authService.register(dto)))
+                .onErrorResume(WebExchangeBindException.class, e -> Mono.just(authService.badRequest(e)));
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@RequestBody @Valid Mono<LoginDTO> body, ServerHttpRequest request) {
+        String clientIp = clientAddressResolver.resolve(request);
+        return body
+                .flatMap(dto -> Mono.fromFuture(() -> authService.login(dto, clientIp)))
+                .onErrorResume(WebExchangeBindException.class, e -> Mono.just(authService.badRequest(e)));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<?>> refreshToken(@RequestBody RefreshDTO dto, ServerHttpRequest request) {
+        String clientIp = clientAddressResolver.resolve(request);
+        return Mono.fromFuture(() -> authService.offload(() -> authService.refresh(dto.getRefreshToken(), clientIp)));
+    }
+
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<?>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        return Mono.fromFuture(() -> authService.offload(() -> authService.logout(authHeader)));
+    }
+
+    @PostMapping("/sessions/revoke-all")
+    public Mono<ResponseEntity<?>> revokeAllSessions(Mono<Principal> principal) {
+        return principal.flatMap(user ->
+                Mono.fromFuture(() -> authService.offload(() -> authService.revokeAllSessions(user.getName()))));
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.t1_hw4.controller;
+
+import org.example.t1_hw4.repository.RevokedTokenRepository;
+import org.example.t1_hw4.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Feed for RemoteRevocationList in the token-verifier module: revoked jtis after an id cursor
+// and session epochs changed since a timestamp, the same queries the nodes of this service sync with.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RevocationListController {
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @GetMapping("/admin/revocations")
+    public ResponseEntity<?> revocations(@RequestParam(defaultValue = "0") long after,
+                                         @RequestParam(defaultValue = "0") long since) {
+        Instant now = Instant.now();
+        List<Map<String, Object>> revoked = revokedTokenRepository
+                .findTop500ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(after, now)
+                .stream()
+                .map(token -> Map.<String, Object>of(
+                        "id", token.getId(),
+                        "jti", token.getJti().toString(),
+                        "exp", token.getExpiresAt().toEpochMilli()))
+                .toList();
+        List<Map<String, Object>> epochs = userRepository
+                .findTokenVersionsChangedSince(Instant.ofEpochMilli(since))
+                .stream()
+                .map(version -> Map.<String, Object>of("uid", version.id(), "ver", version.tokenVersion()))
+                .toList();
+
+        return ResponseEntity.ok(Map.of("revoked", revoked, "epochs", epochs, "serverTime", now.toEpochMilli()));
+    }
+}
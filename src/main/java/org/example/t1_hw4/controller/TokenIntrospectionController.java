@@ -0,0 +1,42 @@
+package org.example.t1_hw4.controller;
+
+import jakarta.validation.Valid;
+import org.example.t1_hw4.dto.IntrospectDTO;
+import org.example.t1_hw4.service.TokenIntrospectionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TokenIntrospectionController {
+    @Autowired
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @Value("${app.introspection.max-batch-size}")
+    private int maxBatchSize;
+
+    @PostMapping("/admin/tokens/introspect")
+    public ResponseEntity<?> introspect(@RequestBody @Valid IntrospectDTO dto, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            List<String> errors = bindingResult.getFieldErrors()
+                    .stream()
+                    .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                    .toList();
+            return ResponseEntity.badRequest().body(errors);
+        }
+        if (dto.getTokens().size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(List.of("tokens: at most " + maxBatchSize + " tokens per request"));
+        }
+
+        return ResponseEntity.ok(Map.of("results", tokenIntrospectionService.introspect(dto.getTokens())));
+    }
+}
@@ -1,138 +1,65 @@
 package org.example.t1_hw4.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.example.t1_hw4.dto.LoginDTO;
 import org.example.t1_hw4.dto.RefreshDTO;
 import org.example.t1_hw4.dto.RegisterDTO;
-import org.example.t1_hw4.jwt.JwtTokenProvider;
-import org.example.t1_hw4.mapper.UserMapper;
-import org.example.t1_hw4.model.User;
-import org.example.t1_hw4.repository.UserRepository;
+import org.example.t1_hw4.ratelimit.ClientAddressResolver;
+import org.example.t1_hw4.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
     @Autowired
-    private UserRepository userRepository;
+    private AuthService authService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
-
-    @Autowired
-    private UserMapper userMapper;
-    @Autowired
-    private JwtTokenProvider jwtTokenProvider;
+    private ClientAddressResolver clientAddressResolver;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody @Valid RegisterDTO dto,
-                                                 BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody @Valid RegisterDTO dto,
+                                                         BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            List<String> errors = getErrors(bindingResult);
-            return ResponseEntity.badRequest().body(errors);
+            return CompletableFuture.completedFuture(authService.badRequest(bindingResult));
         }
-
-        if (userRepository.findByLogin(dto.getLogin()).isPresent()) {
-            List<String> errors = new ArrayList<>() {{
-                add("login: this login is taken");
-            }};
-            return ResponseEntity.status(409)
-                    .body(errors);
-        }
-
-        User user = userMapper.toUser(dto);
-        user.setPasswordDigest(passwordEncoder.encode(dto.getPassword()));
-        userRepository.save(user);
-
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(userMapper.toUserDTO(user));
+        return authService.register(dto);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody @Valid LoginDTO dto,
-                                   BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody @Valid LoginDTO dto,
+                                                      BindingResult bindingResult,
+                                                      HttpServletRequest request) {
         if (bindingResult.hasErrors()) {
-            List<String> errors = getErrors(bindingResult);
-            return ResponseEntity.badRequest().body(errors);
-        }
-
-        Optional<User> user = userRepository.findByLogin(dto.getLogin());
-
-        if (user.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(List.of("User doesn't exist"));
-        }
-
-        if (!passwordEncoder.matches(dto.getPassword(), user.get().getPasswordDigest())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(List.of("Invalid password"));
+            return CompletableFuture.completedFuture(authService.badRequest(bindingResult));
         }
-
-        User authenticatedUser = user.get();
-
-        String accessToken = jwtTokenProvider.generateAccessToken(authenticatedUser.getLogin());
-        String refreshToken = jwtTokenProvider.generateRefreshToken(authenticatedUser.getLogin());
-
-        return ResponseEntity.ok()
-                .body(Map.of(
-                        "username", authenticatedUser.getLogin(),
-                        "role", authenticatedUser.getRole(),
-                        "accessToken", accessToken,
-                        "refreshToken", refreshToken
-                ));
+        return authService.login(dto, clientAddressResolver.resolve(request));
     }
 
     @PostMapping("/refresh")
-    public ResponseEntity<?> refreshToken(@RequestBody RefreshDTO dto) {
-        String refreshToken = dto.getRefreshToken();
-
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
-        }
-
-        String login = jwtTokenProvider.getUsernameFromToken(refreshToken);
-
-        Optional<User> userOptional = userRepository.findByLogin(login);
-        if (userOptional.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-        }
-
-        String newAccessToken = jwtTokenProvider.generateAccessToken(login);
-        return ResponseEntity.ok(Map.of("accessToken", newAccessToken));
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshDTO dto, HttpServletRequest request) {
+        return authService.refresh(dto.getRefreshToken(), clientAddressResolver.resolve(request));
     }
 
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            jwtTokenProvider.blacklistToken(token);
-        }
-        return ResponseEntity.ok(Map.of("message", "Successfully logged out"));
+        return authService.logout(authHeader);
     }
 
-
-    private List<String> getErrors(BindingResult bindingResult) {
-        List<String> errors = bindingResult.getFieldErrors()
-                .stream()
-                .map(error -> error.getField() + ": " + error.getDefaultMessage())
-                .collect(Collectors.toList());
-
-        return errors;
+    @PostMapping("/sessions/revoke-all")
+    public ResponseEntity<?> revokeAllSessions(Principal principal) {
+        return authService.revokeAllSessions(principal.getName());
     }
 }
@@ -0,0 +1,42 @@
+package org.example.t1_hw4.controller;
+
+import jakarta.validation.Valid;
+import org.example.t1_hw4.dto.UserRoleDTO;
+import org.example.t1_hw4.jwt.UserTokenEpochs;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+// The only way to grant a role other than GUEST besides the admin import; /register ignores the requested role.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserRoleController {
+    @Autowired
+    private UserTokenEpochs userTokenEpochs;
+
+    @PutMapping("/admin/users/{login}/role")
+    public ResponseEntity<?> changeRole(@PathVariable String login,
+                                        @RequestBody @Valid UserRoleDTO dto,
+                                        BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            List<String> errors = bindingResult.getFieldErrors()
+                    .stream()
+                    .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                    .toList();
+            return ResponseEntity.badRequest().body(errors);
+        }
+        if (userTokenEpochs.changeRole(login, dto.getRole()).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of("User not found"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Role changed, existing sessions revoked"));
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.t1_hw4.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class IntrospectDTO {
+    @NotEmpty(message = "tokens cannot be empty")
+    private List<String> tokens;
+}
@@ -0,0 +1,18 @@
+package org.example.t1_hw4.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntrospectionResultDTO {
+    private boolean active;
+    private String subject;
+    private String role;
+    private Long exp;
+    private Long cacheTtlSeconds;
+}
@@ -2,7 +2,6 @@ package org.example.t1_hw4.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -25,6 +24,6 @@ public class RegisterDTO {
     @NotBlank(message = "email cannot be empty")
     private String email;
 
-    @NotNull
+    // only honoured by the admin import, /register always creates a GUEST
     private UserRole role;
 }
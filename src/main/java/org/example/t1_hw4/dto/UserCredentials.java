@@ -0,0 +1,6 @@
+package org.example.t1_hw4.dto;
+
+import org.example.t1_hw4.model.UserRole;
+
+public record UserCredentials(long id, String login, String passwordDigest, UserRole role, long tokenVersion) {
+}
@@ -0,0 +1,19 @@
+package org.example.t1_hw4.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResultDTO {
+    private long line;
+    private String login;
+    private String status;
+    private List<String> errors;
+}
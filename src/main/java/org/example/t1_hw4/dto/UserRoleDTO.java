@@ -0,0 +1,15 @@
+package org.example.t1_hw4.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.t1_hw4.model.UserRole;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class UserRoleDTO {
+    @NotNull
+    private UserRole role;
+}
@@ -0,0 +1,6 @@
+package org.example.t1_hw4.dto;
+
+import java.time.Instant;
+
+public record UserTokenVersion(long id, long tokenVersion, Instant updatedAt) {
+}
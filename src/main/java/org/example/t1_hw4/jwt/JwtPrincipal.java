@@ -0,0 +1,16 @@
+package org.example.t1_hw4.jwt;
+
+import org.example.t1_hw4.model.UserRole;
+
+public record JwtPrincipal(String subject, UserRole role, String jti, long expiresAt, long userId, long tokenVersion) {
+
+    public static final long NO_USER_ID = 0;
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+
+    public boolean hasUserId() {
+        return userId != NO_USER_ID;
+    }
+}
@@ -5,12 +5,10 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 public class JwtTokenFilter extends OncePerRequestFilter {
 
@@ -27,17 +25,14 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         String token = resolveToken(request);
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.getUsernameFromToken(token);
-            String role = jwtTokenProvider.getRoleFromToken(token);
+        if (token != null) {
+            jwtTokenProvider.resolvePrincipal(token).ifPresent(principal -> {
+                var authentication = new UsernamePasswordAuthenticationToken(
+                        principal.subject(), null, RoleAuthorities.of(principal.role())
+                );
 
-            SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
-
-            var authentication = new UsernamePasswordAuthenticationToken(
-                    username, null, List.of(authority)
-            );
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            });
         }
 
         filterChain.doFilter(request, response);
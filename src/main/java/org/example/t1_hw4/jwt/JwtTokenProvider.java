@@ -1,18 +1,22 @@
 package org.example.t1_hw4.jwt;
 
-import com.nimbusds.jose.*;
-import com.nimbusds.jose.crypto.*;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jose.JOSEException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.token.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
@@ -26,72 +30,152 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration-ms}")
     private long refreshExpirationMs;
 
-    private byte[] secretBytes;
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+    @Value("${app.jwt.key-reload.enabled}")
+    private boolean keyReloadEnabled;
+
+    @Value("${app.jwt.token-profile}")
+    private TokenProfile tokenProfile;
+
+    @Value("${app.jwt.accepted-profiles}")
+    private Set<TokenProfile> acceptedProfiles;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService revocationService;
+    private final UserTokenEpochs userTokenEpochs;
+
+    private final Timer generateTimer;
+    private final Timer decodeTimer;
+    private final Timer revocationLookupTimer;
+    private final Counter validOutcome;
+    private final Counter cachedOutcome;
+    private final Counter malformedOutcome;
+    private final Counter invalidOutcome;
+    private final Counter expiredOutcome;
+    private final Counter revokedOutcome;
+
+    private JwtKeyRing keyRing;
+    private TokenIssuer tokenIssuer;
+    private TokenVerifier tokenVerifier;
+
+    public JwtTokenProvider(VerifiedTokenCache verifiedTokenCache,
+                            TokenRevocationService revocationService,
+                            UserTokenEpochs userTokenEpochs,
+                            MeterRegistry meterRegistry) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revocationService = revocationService;
+        this.userTokenEpochs = userTokenEpochs;
+
+        this.generateTimer = Timer.builder("auth.token.generate").publishPercentileHistogram().register(meterRegistry);
+        this.decodeTimer = Timer.builder("auth.token.decode").publishPercentileHistogram().register(meterRegistry);
+        this.revocationLookupTimer = Timer.builder("auth.token.revocation.lookup")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.validOutcome = outcome(meterRegistry, "valid");
+        this.cachedOutcome = outcome(meterRegistry, "valid_cached");
+        this.malformedOutcome = outcome(meterRegistry, "malformed");
+        this.invalidOutcome = outcome(meterRegistry, "invalid_signature");
+        this.expiredOutcome = outcome(meterRegistry, "expired");
+        this.revokedOutcome = outcome(meterRegistry, "revoked");
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.token.validation").tag("outcome", outcome).register(meterRegistry);
+    }
 
     @PostConstruct
-    public void init() throws IOException {
-        String jwtSecret = Files.readString(Path.of(jwtPath)).trim();
-        if (jwtSecret.length() < 64) {
-            throw new IllegalArgumentException("Secret must be at least 64 characters for A256CBC-HS512");
+    public void init() throws IOException, JOSEException {
+        if (!acceptedProfiles.contains(tokenProfile)) {
+            throw new IllegalArgumentException("Token profile " + tokenProfile + " must be one of the accepted profiles");
+        }
+        keyRing = new JwtKeyRing(Path.of(jwtPath), refreshExpirationMs);
+        keyRing.reload();
+        if (keyReloadEnabled) {
+            keyRing.startWatching();
         }
-        this.secretBytes = jwtSecret.getBytes();
+        tokenIssuer = new TokenIssuer(keyRing, tokenProfile);
+        tokenVerifier = new TokenVerifier(keyRing, acceptedProfiles);
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        keyRing.close();
     }
 
 
-    public String generateAccessToken(String username) {
-        return generateToken(username, accessExpirationMs);
+    public String generateAccessToken(TokenSubject subject) {
+        return generateToken(subject, accessExpirationMs);
     }
 
-    public String generateRefreshToken(String username) {
-        return generateToken(username, refreshExpirationMs);
+    public String generateRefreshToken(TokenSubject subject) {
+        return generateToken(subject, refreshExpirationMs);
     }
 
-    private String generateToken(String username, long durationMs) {
+    private String generateToken(TokenSubject subject, long durationMs) {
+        long startedAt = System.nanoTime();
         try {
-            Date now = new Date();
-            Date expiry = new Date(now.getTime() + durationMs);
-
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                    .subject(username)
-                    .issueTime(now)
-                    .expirationTime(expiry)
-                    .jwtID(UUID.randomUUID().toString())
-                    .build();
-
-            SignedJWT signedJWT = new SignedJWT(
-                    new JWSHeader(JWSAlgorithm.HS256),
-                    claimsSet
-            );
-            signedJWT.sign(new MACSigner(secretBytes));
-
-            JWEObject jweObject = new JWEObject(
-                    new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256CBC_HS512),
-                    new Payload(signedJWT)
-            );
-            jweObject.encrypt(new DirectEncrypter(secretBytes));
-
-            return jweObject.serialize();
+            return tokenIssuer.issue(subject.login(), subject.role() != null ? subject.role().name() : null,
+                    subject.userId(), subject.tokenVersion(), durationMs);
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate token", e);
+        } finally {
+            generateTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
-    public boolean validateToken(String token) {
-        if (isTokenBlacklisted(token)) return false;
+    public Optional<JwtPrincipal> resolvePrincipal(String token) {
+        if (token == null) return Optional.empty();
+        long now = System.currentTimeMillis();
+
+        TokenDigest cacheKey = null;
+        if (verifiedTokenCache.isEnabled()) {
+            cacheKey = TokenDigest.of(token);
+            JwtPrincipal cached = verifiedTokenCache.get(cacheKey, now);
+            if (cached != null) {
+                if (isRevoked(cached)) {
+                    revokedOutcome.increment();
+                    return Optional.empty();
+                }
+                cachedOutcome.increment();
+                return Optional.of(cached);
+            }
+        }
+
+        JwtPrincipal principal;
+        long startedAt = System.nanoTime();
         try {
-            SignedJWT jwt = decryptAndVerify(token);
-            Date now = new Date();
-            return jwt.getJWTClaimsSet().getExpirationTime().after(now);
+            principal = parsePrincipal(token);
+        } catch (TokenVerificationException e) {
+            (e.reason() == TokenVerificationException.Reason.MALFORMED ? malformedOutcome : invalidOutcome).increment();
+            return Optional.empty();
         } catch (Exception e) {
-            return false;
+            invalidOutcome.increment();
+            return Optional.empty();
+        } finally {
+            decodeTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        if (principal.isExpired(now)) {
+            expiredOutcome.increment();
+            return Optional.empty();
+        }
+        if (isRevoked(principal)) {
+            revokedOutcome.increment();
+            return Optional.empty();
+        }
+        if (cacheKey != null) {
+            verifiedTokenCache.put(cacheKey, principal, now);
         }
+        validOutcome.increment();
+        return Optional.of(principal);
+    }
+
+    public boolean validateToken(String token) {
+        return resolvePrincipal(token).isPresent();
     }
 
     public String getUsernameFromToken(String token) {
         try {
-            SignedJWT jwt = decryptAndVerify(token);
-            return jwt.getJWTClaimsSet().getSubject();
+            return parsePrincipal(token).subject();
         } catch (Exception e) {
             throw new RuntimeException("Invalid token", e);
         }
@@ -99,30 +183,53 @@ public class JwtTokenProvider {
 
     public String getRoleFromToken(String token) {
         try {
-            SignedJWT jwt = decryptAndVerify(token);
-            return jwt.getJWTClaimsSet().getStringClaim("role");
+            UserRole role = parsePrincipal(token).role();
+            return role != null ? role.name() : null;
         } catch (Exception e) {
-            return e.getMessage();
+            return null;
         }
     }
 
     public void blacklistToken(String token) {
-        blacklistedTokens.add(token);
+        try {
+            JwtPrincipal principal = parsePrincipal(token);
+            revocationService.revoke(UUID.fromString(principal.jti()), principal.expiresAt());
+            verifiedTokenCache.invalidate(token);
+        } catch (Exception e) {
+            // a token that does not verify is rejected anyway, there is nothing to revoke
+        }
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+        try {
+            return isRevoked(parsePrincipal(token));
+        } catch (Exception e) {
+            return false;
+        }
     }
 
+    private boolean isRevoked(JwtPrincipal principal) {
+        long startedAt = System.nanoTime();
+        try {
+            if (principal.hasUserId() && !userTokenEpochs.isCurrent(principal.userId(), principal.tokenVersion())) {
+                return true;
+            }
+            return revocationService.isRevoked(principal.jti(), principal.expiresAt());
+        } finally {
+            revocationLookupTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
 
-    private SignedJWT decryptAndVerify(String token) throws Exception {
-        JWEObject jweObject = JWEObject.parse(token);
-        jweObject.decrypt(new DirectDecrypter(secretBytes));
 
-        SignedJWT signedJWT = jweObject.getPayload().toSignedJWT();
-        if (!signedJWT.verify(new MACVerifier(secretBytes))) {
-            throw new SecurityException("Invalid token signature");
-        }
-        return signedJWT;
+    private JwtPrincipal parsePrincipal(String token) throws TokenVerificationException {
+        TokenClaims claims = tokenVerifier.verify(token);
+        return new JwtPrincipal(
+                claims.subject(),
+                claims.role() != null ? UserRole.valueOf(claims.role()) : null,
+                claims.jti(),
+                claims.expiresAt(),
+                claims.userId(),
+                claims.tokenVersion()
+        );
     }
 }
@@ -0,0 +1,43 @@
+package org.example.t1_hw4.jwt;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+// Verification is CPU-only (cache, in-memory revocation and epochs), so it runs inline on the event loop.
+public class ReactiveJwtTokenFilter implements WebFilter {
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public ReactiveJwtTokenFilter(JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String token = resolveToken(exchange.getRequest());
+
+        if (token != null) {
+            return jwtTokenProvider.resolvePrincipal(token)
+                    .map(principal -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                            new UsernamePasswordAuthenticationToken(
+                                    principal.subject(), null, RoleAuthorities.of(principal.role())))))
+                    .orElseGet(() -> chain.filter(exchange));
+        }
+
+        return chain.filter(exchange);
+    }
+
+    private String resolveToken(ServerHttpRequest request) {
+        String bearerToken = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
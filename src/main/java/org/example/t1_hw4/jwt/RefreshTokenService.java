@@ -0,0 +1,55 @@
+package org.example.t1_hw4.jwt;
+
+import org.example.t1_hw4.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Component
+public class RefreshTokenService {
+
+    @Value("${app.jwt.refresh-expiration-ms}")
+    private long refreshExpirationMs;
+
+    @Value("${app.jwt.refresh-tokens.cleanup-batch-size}")
+    private int cleanupBatchSize;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    public void register(String refreshToken, long userId) {
+        refreshTokenRepository.insert(
+                TokenDigest.of(refreshToken).toBytes(),
+                UUID.randomUUID(),
+                userId,
+                Instant.now().plusMillis(refreshExpirationMs)
+        );
+    }
+
+    public boolean rotate(String presentedToken, String nextToken) {
+        Instant now = Instant.now();
+        byte[] presentedHash = TokenDigest.of(presentedToken).toBytes();
+        if (refreshTokenRepository.rotate(presentedHash, TokenDigest.of(nextToken).toBytes(),
+                now, now.plusMillis(refreshExpirationMs))) {
+            return true;
+        }
+        // a token that was already rotated is being replayed, the whole chain is treated as stolen
+        refreshTokenRepository.deleteFamilyOfUsed(presentedHash);
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-tokens.cleanup-interval-ms}")
+    public void cleanup() {
+        Instant now = Instant.now();
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpired(now, cleanupBatchSize);
+        } while (deleted == cleanupBatchSize);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.t1_hw4.jwt;
+
+import java.util.concurrent.locks.StampedLock;
+
+final class RevokedIdSet {
+
+    private static final int INITIAL_SLOTS = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] table = new long[INITIAL_SLOTS * 2];
+    private int size;
+
+    void add(long msb, long lsb) {
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 2 > table.length / 2) {
+                table = resize(table);
+            }
+            if (insert(table, msb, lsb)) {
+                size++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean contains(long msb, long lsb) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean found = probe(table, msb, lsb);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return probe(table, msb, lsb);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void forEach(IdConsumer consumer) {
+        long stamp = lock.readLock();
+        try {
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != 0 || table[i + 1] != 0) {
+                    consumer.accept(table[i], table[i + 1]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @FunctionalInterface
+    interface IdConsumer {
+        void accept(long msb, long lsb);
+    }
+
+    private static boolean probe(long[] table, long msb, long lsb) {
+        int slots = table.length >>> 1;
+        int mask = slots - 1;
+        int slot = hash(msb, lsb) & mask;
+        for (int i = 0; i < slots; i++) {
+            long m = table[slot << 1];
+            long l = table[(slot << 1) + 1];
+            if (m == 0 && l == 0) {
+                return false;
+            }
+            if (m == msb && l == lsb) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private static boolean insert(long[] table, long msb, long lsb) {
+        int mask = (table.length >>> 1) - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (true) {
+            long m = table[slot << 1];
+            long l = table[(slot << 1) + 1];
+            if (m == 0 && l == 0) {
+                table[slot << 1] = msb;
+                table[(slot << 1) + 1] = lsb;
+                return true;
+            }
+            if (m == msb && l == lsb) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static long[] resize(long[] old) {
+        long[] table = new long[old.length * 2];
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0 || old[i + 1] != 0) {
+                insert(table, old[i], old[i + 1]);
+            }
+        }
+        return table;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.t1_hw4.jwt;
+
+import org.example.t1_hw4.model.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+final class RoleAuthorities {
+
+    private static final Map<UserRole, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    private RoleAuthorities() {
+    }
+
+    static List<GrantedAuthority> of(UserRole role) {
+        return role == null ? List.of() : AUTHORITIES.get(role);
+    }
+}
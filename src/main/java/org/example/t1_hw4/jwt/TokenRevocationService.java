@@ -0,0 +1,129 @@
+package org.example.t1_hw4.jwt;
+
+import jakarta.annotation.PostConstruct;
+import org.example.t1_hw4.model.RevokedToken;
+import org.example.t1_hw4.repository.RevokedTokenRepository;
+import org.example.t1_hw4.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class TokenRevocationService {
+
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    @Value("${app.jwt.revocation.bloom-expected-insertions}")
+    private long bloomExpectedInsertions;
+
+    @Value("${app.jwt.revocation.bloom-fpp}")
+    private double bloomFpp;
+
+    @Value("${app.jwt.revocation.sync-overlap}")
+    private long syncOverlap;
+
+    private final TokenRevocationStore store;
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile BloomFilter bloomFilter;
+    private long lastSeenId;
+
+    public TokenRevocationService(TokenRevocationStore store, RevokedTokenRepository revokedTokenRepository) {
+        this.store = store;
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new BloomFilter(bloomExpectedInsertions, bloomFpp);
+        sync();
+    }
+
+    public void revoke(UUID jti, long expiresAt) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setJti(jti);
+        revokedToken.setExpiresAt(Instant.ofEpochMilli(expiresAt));
+        revokedToken.setRevokedAt(Instant.now());
+        try {
+            revokedTokenRepository.save(revokedToken);
+        } catch (DataIntegrityViolationException e) {
+            // the same token was already revoked, possibly on another node
+        }
+        addLocal(jti, expiresAt);
+    }
+
+    public boolean isRevoked(String jti, long expiresAt) {
+        if (store.isEmpty()) {
+            return false;
+        }
+        UUID id = UUID.fromString(jti);
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        if (!bloomFilter.mightContain(BloomFilter.mix(msb), BloomFilter.mix(lsb))) {
+            return false;
+        }
+        return store.isRevoked(id, expiresAt);
+    }
+
+    // Rows are re-read from slightly before the last seen id, because identity values
+    // can commit out of order and a late commit would otherwise never be picked up.
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms}")
+    public void sync() {
+        syncLock.lock();
+        try {
+            Instant now = Instant.now();
+            List<RevokedToken> batch;
+            do {
+                long from = Math.max(0, lastSeenId - syncOverlap);
+                batch = revokedTokenRepository.findTop500ByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(from, now);
+                for (RevokedToken revokedToken : batch) {
+                    addLocal(revokedToken.getJti(), revokedToken.getExpiresAt().toEpochMilli());
+                    lastSeenId = Math.max(lastSeenId, revokedToken.getId());
+                }
+            } while (batch.size() == SYNC_BATCH_SIZE);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sweep-interval-ms}")
+    public void sweep() {
+        rebuildBloomFilter();
+        revokedTokenRepository.deleteExpired(Instant.now());
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    private void addLocal(UUID jti, long expiresAt) {
+        lock.lock();
+        try {
+            store.revoke(jti, expiresAt);
+            bloomFilter.put(BloomFilter.mix(jti.getMostSignificantBits()), BloomFilter.mix(jti.getLeastSignificantBits()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        lock.lock();
+        try {
+            store.sweep();
+            BloomFilter rebuilt = new BloomFilter(Math.max(bloomExpectedInsertions, store.size() * 2L), bloomFpp);
+            store.forEach((msb, lsb) -> rebuilt.put(BloomFilter.mix(msb), BloomFilter.mix(lsb)));
+            bloomFilter = rebuilt;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.t1_hw4.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Component
+public class TokenRevocationStore {
+
+    @Value("${app.jwt.revocation.bucket-ms}")
+    private long bucketMs;
+
+    private final ConcurrentNavigableMap<Long, RevokedIdSet> buckets = new ConcurrentSkipListMap<>();
+
+    public void revoke(UUID jti, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        buckets.computeIfAbsent(expiresAt / bucketMs, bucket -> new RevokedIdSet())
+                .add(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+    }
+
+    public boolean isRevoked(UUID jti, long expiresAt) {
+        RevokedIdSet ids = buckets.get(expiresAt / bucketMs);
+        return ids != null && ids.contains(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+    }
+
+    public boolean isEmpty() {
+        return buckets.isEmpty();
+    }
+
+    void forEach(RevokedIdSet.IdConsumer consumer) {
+        for (RevokedIdSet ids : buckets.values()) {
+            ids.forEach(consumer);
+        }
+    }
+
+    public void sweep() {
+        buckets.headMap(System.currentTimeMillis() / bucketMs).clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (RevokedIdSet ids : buckets.values()) {
+            size += ids.size();
+        }
+        return size;
+    }
+}
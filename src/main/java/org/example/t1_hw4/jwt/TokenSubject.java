@@ -0,0 +1,6 @@
+package org.example.t1_hw4.jwt;
+
+import org.example.t1_hw4.model.UserRole;
+
+public record TokenSubject(String login, long userId, long tokenVersion, UserRole role) {
+}
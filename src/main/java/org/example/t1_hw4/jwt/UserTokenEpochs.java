@@ -0,0 +1,107 @@
+package org.example.t1_hw4.jwt;
+
+import jakarta.annotation.PostConstruct;
+import org.example.t1_hw4.dto.UserTokenVersion;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class UserTokenEpochs {
+
+    @Value("${app.jwt.epochs.sync-overlap-ms}")
+    private long syncOverlapMs;
+
+    @Value("${app.jwt.refresh-expiration-ms}")
+    private long refreshExpirationMs;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // only users that revoked their sessions within the refresh token lifetime are present: every token issued
+    // before an older bump has expired anyway, so a missing entry accepts any version
+    private final Map<Long, Epoch> epochs = new ConcurrentHashMap<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private Instant lastSync = Instant.EPOCH;
+
+    public UserTokenEpochs(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        sync();
+    }
+
+    public boolean isCurrent(long userId, long tokenVersion) {
+        Epoch epoch = epochs.get(userId);
+        return epoch == null || tokenVersion >= epoch.version();
+    }
+
+    public Optional<UserTokenVersion> revokeAll(String login) {
+        Optional<UserTokenVersion> updated = transactionTemplate.execute(status -> {
+            if (userRepository.incrementTokenVersion(login, Instant.now()) == 0) {
+                return Optional.<UserTokenVersion>empty();
+            }
+            return userRepository.findTokenVersionByLogin(login);
+        });
+        updated.ifPresent(this::apply);
+        return updated;
+    }
+
+    // tokens carry the role, so a role change bumps the version as well and the old tokens stop being accepted
+    public Optional<UserTokenVersion> changeRole(String login, UserRole role) {
+        Optional<UserTokenVersion> updated = transactionTemplate.execute(status -> {
+            if (userRepository.updateRole(login, role, Instant.now()) == 0) {
+                return Optional.<UserTokenVersion>empty();
+            }
+            return userRepository.findTokenVersionByLogin(login);
+        });
+        updated.ifPresent(this::apply);
+        return updated;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.epochs.sync-interval-ms}")
+    public void sync() {
+        syncLock.lock();
+        try {
+            Instant now = Instant.now();
+            Instant horizon = now.minusMillis(refreshExpirationMs);
+            Instant since = lastSync.equals(Instant.EPOCH) ? horizon : lastSync.minusMillis(syncOverlapMs);
+            userRepository.findTokenVersionsChangedSince(since).forEach(this::apply);
+            evictExpired(now);
+            lastSync = now;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public int size() {
+        return epochs.size();
+    }
+
+    // removeIf on the values view only removes an entry that still holds the expired epoch, a concurrent bump stays
+    void evictExpired(Instant now) {
+        Instant horizon = now.minusMillis(refreshExpirationMs);
+        epochs.values().removeIf(epoch -> epoch.updatedAt().isBefore(horizon));
+    }
+
+    private void apply(UserTokenVersion version) {
+        epochs.merge(version.id(), new Epoch(version.tokenVersion(), version.updatedAt()),
+                (current, updated) -> updated.version() > current.version() ? updated : current);
+    }
+
+    private record Epoch(long version, Instant updatedAt) {
+    }
+}
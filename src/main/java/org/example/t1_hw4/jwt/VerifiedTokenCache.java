@@ -0,0 +1,103 @@
+package org.example.t1_hw4.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${app.jwt.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${app.jwt.cache.max-entries}")
+    private int maxEntries;
+
+    private final Map<TokenDigest, JwtPrincipal> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    JwtPrincipal get(TokenDigest key, long nowMillis) {
+        JwtPrincipal principal = entries.get(key);
+        if (principal == null) {
+            misses.increment();
+            return null;
+        }
+        if (principal.isExpired(nowMillis)) {
+            if (entries.remove(key, principal)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return principal;
+    }
+
+    void put(TokenDigest key, JwtPrincipal principal, long nowMillis) {
+        if (entries.size() >= maxEntries) {
+            evict(nowMillis);
+        }
+        entries.put(key, principal);
+    }
+
+    public void invalidate(String token) {
+        if (enabled && token != null) {
+            entries.remove(TokenDigest.of(token));
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Expired entries go first; if the cache is full of live tokens, a tenth of it is
+    // dropped at once so the O(n) sweep is amortised over many inserts.
+    private void evict(long nowMillis) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<JwtPrincipal> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isExpired(nowMillis)) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            it = entries.values().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
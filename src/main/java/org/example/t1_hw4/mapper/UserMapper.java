@@ -17,7 +17,7 @@ public abstract class UserMapper {
             @Mapping(source = "email", target = "email"),
             @Mapping(target = "id", ignore = true),
             @Mapping(target = "passwordDigest", ignore = true),
-            @Mapping(source = "role", target = "role")
+            @Mapping(source = "role", target = "role", defaultValue = "GUEST")
     })
     public abstract User toUser(RegisterDTO dto);
 
@@ -4,8 +4,12 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "users")
 @Getter
@@ -14,7 +18,8 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @EntityListeners(AuditingEntityListener.class)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private long id;
 
     @Column(unique = true)
@@ -25,5 +30,18 @@ public class User {
     @Column(unique = true)
     private String email;
 
+    // the column is smallint (V1), without this Hibernate expects tinyint and schema validation fails
+    @JdbcTypeCode(SqlTypes.SMALLINT)
     private UserRole role;
+
+    @Column(nullable = false)
+    private long tokenVersion;
+
+    private Instant tokenVersionUpdatedAt;
+
+    private Instant lastLoginAt;
+
+    // filled by the column default (V8), KnownLoginsFilter polls new registrations by it
+    @Column(insertable = false, updatable = false)
+    private Instant createdAt;
 }
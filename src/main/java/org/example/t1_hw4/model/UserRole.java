@@ -3,5 +3,7 @@ package org.example.t1_hw4.model;
 public enum UserRole {
     ADMIN,
     PREMIUM_USER,
-    GUEST
+    GUEST,
+    // service accounts of the gateways, only allowed to read token state; stored by ordinal, so new values go last
+    TOKEN_INTROSPECTOR
 }
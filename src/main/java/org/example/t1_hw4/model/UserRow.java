@@ -0,0 +1,42 @@
+package org.example.t1_hw4.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.t1_hw4.dto.UserCredentials;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+// R2DBC view of the users table for the reactive profile, role is stored as its ordinal like in User.
+@Table("users")
+@Getter
+@Setter
+@ToString
+public class UserRow {
+    @Id
+    private Long id;
+
+    private String login;
+
+    private String passwordDigest;
+
+    private String email;
+
+    private short role;
+
+    private long tokenVersion;
+
+    public static UserRow from(User user) {
+        UserRow row = new UserRow();
+        row.setLogin(user.getLogin());
+        row.setPasswordDigest(user.getPasswordDigest());
+        row.setEmail(user.getEmail());
+        row.setRole((short) user.getRole().ordinal());
+        row.setTokenVersion(user.getTokenVersion());
+        return row;
+    }
+
+    public UserCredentials toCredentials() {
+        return new UserCredentials(id, login, passwordDigest, UserRole.values()[role], tokenVersion);
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.t1_hw4.ratelimit;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final Set<String> EXPENSIVE_PATHS = Set.of("/login", "/register");
+
+    private final AdaptiveConcurrencyLimit expensive;
+    private final AdaptiveConcurrencyLimit cheap;
+    private final Runnable onRejected;
+
+    public AdaptiveConcurrencyFilter(AdaptiveConcurrencyLimit expensive,
+                                     AdaptiveConcurrencyLimit cheap,
+                                     Runnable onRejected) {
+        this.expensive = expensive;
+        this.cheap = cheap;
+        this.onRejected = onRejected;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        AdaptiveConcurrencyLimit limit = limitFor(request);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limit.tryAcquire()) {
+            onRejected.run();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("[\"Server is busy, try again later\"]");
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit, startedAt));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release(limit, startedAt);
+            }
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(HttpServletRequest request) {
+        if (HttpMethod.POST.matches(request.getMethod()) && EXPENSIVE_PATHS.contains(request.getServletPath())) {
+            return expensive;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            return cheap;
+        }
+        return null;
+    }
+
+    private static void release(AdaptiveConcurrencyLimit limit, long startedAt) {
+        long now = System.nanoTime();
+        limit.release(now - startedAt, now);
+    }
+
+    private record ReleaseOnComplete(AdaptiveConcurrencyLimit limit, long startedAt) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(limit, startedAt);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.t1_hw4.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > getLimit()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    // AIMD: every request that finishes under the target grows the limit by 1/limit, i.e. about one per
+    // limit's worth of requests; a slow one shrinks it by 10%, at most once per target latency so that
+    // a single overloaded window does not collapse the limit to the minimum
+    public void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+
+        if (latencyNanos <= targetLatencyNanos) {
+            updateLimit(limit -> Math.min(maxLimit, limit + 1 / limit));
+            return;
+        }
+
+        long lastDecrease = lastDecreaseNanos.get();
+        if (nowNanos - lastDecrease >= targetLatencyNanos && lastDecreaseNanos.compareAndSet(lastDecrease, nowNanos)) {
+            updateLimit(limit -> Math.max(minLimit, limit * BACKOFF_RATIO));
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        long current;
+        long next;
+        do {
+            current = limitBits.get();
+            next = Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(current)));
+        } while (current != next && !limitBits.compareAndSet(current, next));
+    }
+}
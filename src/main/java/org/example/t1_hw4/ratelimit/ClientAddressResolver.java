@@ -0,0 +1,123 @@
+package org.example.t1_hw4.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Resolves the client address for rate limits and audit. Forwarded and X-Forwarded-For are only believed when
+// the peer is one of app.client-address.trusted-proxies, and the chain is walked from the right so a client
+// cannot prepend its own entries: the first hop that is not a trusted proxy is the client.
+@Component
+public class ClientAddressResolver {
+
+    private static final String FORWARDED = "Forwarded";
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientAddressResolver(@Value("${app.client-address.trusted-proxies}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .filter(proxy -> !proxy.isBlank())
+                .map(proxy -> new IpAddressMatcher(proxy.trim()))
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        return resolve(request.getRemoteAddr(),
+                Collections.list(request.getHeaders(FORWARDED)),
+                Collections.list(request.getHeaders(X_FORWARDED_FOR)));
+    }
+
+    public String resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return null;
+        }
+        String peer = remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString();
+        return resolve(peer,
+                request.getHeaders().getOrEmpty(FORWARDED),
+                request.getHeaders().getOrEmpty(X_FORWARDED_FOR));
+    }
+
+    String resolve(String peer, List<String> forwarded, List<String> forwardedFor) {
+        if (!isTrusted(peer)) {
+            return peer;
+        }
+
+        // Forwarded (RFC 7239) wins when a proxy sends both
+        List<String> hops = !forwarded.isEmpty() ? forwardedHops(forwarded) : forwardedForHops(forwardedFor);
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            String hop = hops.get(i);
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        return hops.isEmpty() ? peer : hops.get(0);
+    }
+
+    private boolean isTrusted(String address) {
+        if (address == null || !isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> forwardedForHops(List<String> headers) {
+        List<String> hops = new ArrayList<>();
+        for (String header : headers) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) {
+                    hops.add(stripPort(hop.trim()));
+                }
+            }
+        }
+        return hops;
+    }
+
+    private static List<String> forwardedHops(List<String> headers) {
+        List<String> hops = new ArrayList<>();
+        for (String header : headers) {
+            for (String element : header.split(",")) {
+                for (String pair : element.split(";")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0 && pair.substring(0, eq).trim().equalsIgnoreCase("for")) {
+                        hops.add(stripPort(pair.substring(eq + 1).trim().replace("\"", "")));
+                    }
+                }
+            }
+        }
+        return hops;
+    }
+
+    // "[2001:db8::1]:4711" -> 2001:db8::1, "192.0.2.43:47011" -> 192.0.2.43, a bare IPv6 address is kept
+    private static String stripPort(String hop) {
+        if (hop.startsWith("[")) {
+            int end = hop.indexOf(']');
+            return end > 0 ? hop.substring(1, end) : hop;
+        }
+        int colon = hop.indexOf(':');
+        return colon > 0 && colon == hop.lastIndexOf(':') ? hop.substring(0, colon) : hop;
+    }
+
+    // IpAddressMatcher resolves anything else through DNS; "unknown" and obfuscated identifiers are never trusted
+    private static boolean isIpLiteral(String address) {
+        if (address.indexOf(':') >= 0) {
+            return address.chars().allMatch(c -> Character.digit(c, 16) >= 0 || c == '.' || c == ':');
+        }
+        return !address.isEmpty() && address.chars().allMatch(c -> Character.isDigit(c) || c == '.');
+    }
+}
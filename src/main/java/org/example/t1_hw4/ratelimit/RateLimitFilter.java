@@ -0,0 +1,44 @@
+package org.example.t1_hw4.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiters rateLimiters;
+    private final ClientAddressResolver clientAddressResolver;
+
+    public RateLimitFilter(RateLimiters rateLimiters, ClientAddressResolver clientAddressResolver) {
+        this.rateLimiters = rateLimiters;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (HttpMethod.POST.matches(request.getMethod())) {
+            long waitNanos = rateLimiters.acquireForClient(
+                    request.getServletPath(), clientAddressResolver.resolve(request));
+            if (waitNanos != RateLimiter.ALLOWED) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimiters.retryAfterSeconds(waitNanos)));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("[\"Too many requests\"]");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
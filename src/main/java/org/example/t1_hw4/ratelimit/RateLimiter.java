@@ -0,0 +1,67 @@
+package org.example.t1_hw4.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RateLimiter {
+
+    public static final long ALLOWED = 0;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final AtomicReference<AtomicLong> overflow = new AtomicReference<>();
+
+    public RateLimiter(int permitsPerMinute, int burst, int maxKeys) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, permitsPerMinute);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    // GCRA: a key is a single theoretical arrival time, so acquiring is one CAS and no lock;
+    // returns ALLOWED or the nanoseconds until the key may try again
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong arrival = arrivals.get(key);
+        if (arrival == null) {
+            // a full table is not scanned here, the scheduled evictIdle frees it; until then every unseen
+            // key shares one bucket, so a flood of new addresses is throttled together and tracked keys are not
+            arrival = arrivals.size() < maxKeys
+                    ? arrivals.computeIfAbsent(key, k -> new AtomicLong(nowNanos))
+                    : overflowArrival(nowNanos);
+        }
+
+        while (true) {
+            long theoretical = arrival.get();
+            long base = theoretical - nowNanos > 0 ? theoretical : nowNanos;
+            long next = base + emissionIntervalNanos;
+            long allowAt = next - emissionIntervalNanos - burstToleranceNanos;
+            if (allowAt - nowNanos > 0) {
+                return allowAt - nowNanos;
+            }
+            if (arrival.compareAndSet(theoretical, next)) {
+                return ALLOWED;
+            }
+        }
+    }
+
+    public void evictIdle(long nowNanos) {
+        // a key whose arrival time has passed has a full bucket and behaves exactly like a missing one
+        arrivals.values().removeIf(arrival -> arrival.get() - nowNanos <= 0);
+    }
+
+    private AtomicLong overflowArrival(long nowNanos) {
+        AtomicLong arrival = overflow.get();
+        if (arrival == null) {
+            overflow.compareAndSet(null, new AtomicLong(nowNanos));
+            arrival = overflow.get();
+        }
+        return arrival;
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.t1_hw4.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class RateLimiters {
+
+    @Value("${app.rate-limit.enabled}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.max-keys}")
+    private int maxKeys;
+
+    @Value("${app.rate-limit.ip.login.per-minute}")
+    private int loginPerIp;
+
+    @Value("${app.rate-limit.ip.login.burst}")
+    private int loginPerIpBurst;
+
+    @Value("${app.rate-limit.ip.register.per-minute}")
+    private int registerPerIp;
+
+    @Value("${app.rate-limit.ip.register.burst}")
+    private int registerPerIpBurst;
+
+    @Value("${app.rate-limit.ip.refresh.per-minute}")
+    private int refreshPerIp;
+
+    @Value("${app.rate-limit.ip.refresh.burst}")
+    private int refreshPerIpBurst;
+
+    @Value("${app.rate-limit.account.login.per-minute}")
+    private int loginPerAccount;
+
+    @Value("${app.rate-limit.account.login.burst}")
+    private int loginPerAccountBurst;
+
+    private Map<String, RateLimiter> byPath;
+    private RateLimiter byAccount;
+
+    @PostConstruct
+    public void init() {
+        byPath = Map.of(
+                "/login", new RateLimiter(loginPerIp, loginPerIpBurst, maxKeys),
+                "/register", new RateLimiter(registerPerIp, registerPerIpBurst, maxKeys),
+                "/refresh", new RateLimiter(refreshPerIp, refreshPerIpBurst, maxKeys)
+        );
+        byAccount = new RateLimiter(loginPerAccount, loginPerAccountBurst, maxKeys);
+    }
+
+    public long acquireForClient(String path, String clientAddress) {
+        RateLimiter limiter = enabled ? byPath.get(path) : null;
+        return limiter == null ? RateLimiter.ALLOWED : limiter.tryAcquire(clientAddress, System.nanoTime());
+    }
+
+    public long acquireForLogin(String login) {
+        return enabled ? byAccount.tryAcquire(login, System.nanoTime()) : RateLimiter.ALLOWED;
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        byPath.values().forEach(limiter -> limiter.evictIdle(now));
+        byAccount.evictIdle(now);
+    }
+}
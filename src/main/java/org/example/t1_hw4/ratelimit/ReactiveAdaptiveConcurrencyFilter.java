@@ -0,0 +1,76 @@
+package org.example.t1_hw4.ratelimit;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+// WebFlux counterpart of AdaptiveConcurrencyFilter: the permit is held until the response completes,
+// errors or is cancelled, and the filter runs ahead of the security WebFilterChainProxy (order -100).
+public class ReactiveAdaptiveConcurrencyFilter implements WebFilter, Ordered {
+
+    private static final Set<String> EXPENSIVE_PATHS = Set.of("/login", "/register");
+    private static final byte[] BUSY = "[\"Server is busy, try again later\"]".getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimit expensive;
+    private final AdaptiveConcurrencyLimit cheap;
+    private final Runnable onRejected;
+
+    public ReactiveAdaptiveConcurrencyFilter(AdaptiveConcurrencyLimit expensive,
+                                             AdaptiveConcurrencyLimit cheap,
+                                             Runnable onRejected) {
+        this.expensive = expensive;
+        this.cheap = cheap;
+        this.onRejected = onRejected;
+    }
+
+    @Override
+    public int getOrder() {
+        return -101;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AdaptiveConcurrencyLimit limit = limitFor(exchange.getRequest());
+        if (limit == null) {
+            return chain.filter(exchange);
+        }
+
+        if (!limit.tryAcquire()) {
+            onRejected.run();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(BUSY)));
+        }
+
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            long now = System.nanoTime();
+            limit.release(now - startedAt, now);
+        });
+    }
+
+    private AdaptiveConcurrencyLimit limitFor(ServerHttpRequest request) {
+        if (HttpMethod.POST.equals(request.getMethod())
+                && EXPENSIVE_PATHS.contains(request.getPath().pathWithinApplication().value())) {
+            return expensive;
+        }
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            return cheap;
+        }
+        return null;
+    }
+}
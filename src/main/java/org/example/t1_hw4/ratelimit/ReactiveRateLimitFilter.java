@@ -0,0 +1,48 @@
+package org.example.t1_hw4.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS = "[\"Too many requests\"]".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiters rateLimiters;
+    private final ClientAddressResolver clientAddressResolver;
+
+    public ReactiveRateLimitFilter(RateLimiters rateLimiters, ClientAddressResolver clientAddressResolver) {
+        this.rateLimiters = rateLimiters;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String clientAddress = clientAddressResolver.resolve(request);
+
+        if (HttpMethod.POST.equals(request.getMethod()) && clientAddress != null) {
+            long waitNanos = rateLimiters.acquireForClient(
+                    request.getPath().pathWithinApplication().value(), clientAddress);
+            if (waitNanos != RateLimiter.ALLOWED) {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(RateLimiters.retryAfterSeconds(waitNanos)));
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS)));
+            }
+        }
+
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.t1_hw4.repository;
+
+import org.example.t1_hw4.dto.UserCredentials;
+import org.example.t1_hw4.model.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Runs on the calling thread, the servlet flow already calls it from a request or continuation thread.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JpaUserStore implements UserStore {
+
+    private final UserRepository userRepository;
+
+    public JpaUserStore(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(User user) {
+        try {
+            userRepository.saveAndFlush(user);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserCredentials>> findCredentialsByLogin(String login) {
+        return CompletableFuture.completedFuture(userRepository.findCredentialsByLogin(login));
+    }
+
+    @Override
+    public CompletableFuture<Void> updatePasswordDigest(long id, String passwordDigest) {
+        userRepository.updatePasswordDigest(id, passwordDigest);
+        return CompletableFuture.completedFuture(null);
+    }
+}
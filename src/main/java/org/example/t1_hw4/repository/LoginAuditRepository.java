@@ -0,0 +1,56 @@
+package org.example.t1_hw4.repository;
+
+import org.example.t1_hw4.audit.LoginAuditEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class LoginAuditRepository {
+
+    private static final String INSERT_EVENT = """
+            INSERT INTO login_audit (event_type, outcome, login, user_id, client_ip, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_LAST_LOGIN = """
+            UPDATE users SET last_login_at = ?
+            WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LoginAuditRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<LoginAuditEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.type().name());
+            statement.setString(2, event.outcome());
+            statement.setString(3, event.login());
+            if (event.userId() != null) {
+                statement.setLong(4, event.userId());
+            } else {
+                statement.setNull(4, Types.BIGINT);
+            }
+            statement.setString(5, event.clientIp());
+            statement.setTimestamp(6, Timestamp.from(event.occurredAt()));
+        });
+    }
+
+    public void updateLastLogins(Map<Long, Instant> lastLogins) {
+        List<Map.Entry<Long, Instant>> entries = List.copyOf(lastLogins.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, entries, entries.size(), (statement, entry) -> {
+            Timestamp lastLoginAt = Timestamp.from(entry.getValue());
+            statement.setTimestamp(1, lastLoginAt);
+            statement.setLong(2, entry.getKey());
+            statement.setTimestamp(3, lastLoginAt);
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.t1_hw4.repository;
+
+import org.example.t1_hw4.dto.UserCredentials;
+import org.example.t1_hw4.model.User;
+import org.example.t1_hw4.model.UserRow;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Non-blocking, the futures complete on R2DBC driver threads.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class R2dbcUserStore implements UserStore {
+
+    private final ReactiveUserRepository reactiveUserRepository;
+
+    public R2dbcUserStore(ReactiveUserRepository reactiveUserRepository) {
+        this.reactiveUserRepository = reactiveUserRepository;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(User user) {
+        return reactiveUserRepository.save(UserRow.from(user)).then().toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserCredentials>> findCredentialsByLogin(String login) {
+        return reactiveUserRepository.findCredentialsByLogin(login)
+                .map(UserRow::toCredentials)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> updatePasswordDigest(long id, String passwordDigest) {
+        return reactiveUserRepository.updatePasswordDigest(id, passwordDigest).then().toFuture();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.t1_hw4.repository;
+
+import org.example.t1_hw4.model.UserRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveUserRepository extends R2dbcRepository<UserRow, Long> {
+    @Query("select id, login, password_digest, role, token_version from users where login = :login")
+    Mono<UserRow> findCredentialsByLogin(@Param("login") String login);
+
+    @Modifying
+    @Query("update users set password_digest = :passwordDigest where id = :id")
+    Mono<Integer> updatePasswordDigest(@Param("id") long id, @Param("passwordDigest") String passwordDigest);
+}
@@ -0,0 +1,64 @@
+package org.example.t1_hw4.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public class RefreshTokenRepository {
+
+    private static final String INSERT = """
+            INSERT INTO refresh_tokens (token_hash, family_id, user_id, expires_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String ROTATE = """
+            WITH consumed AS (
+                UPDATE refresh_tokens SET used = TRUE
+                WHERE token_hash = ? AND NOT used AND expires_at > ?
+                RETURNING family_id, user_id
+            )
+            INSERT INTO refresh_tokens (token_hash, family_id, user_id, expires_at)
+            SELECT ?, family_id, user_id, ? FROM consumed
+            """;
+
+    private static final String DELETE_FAMILY_OF_USED = """
+            DELETE FROM refresh_tokens
+            WHERE family_id = (SELECT family_id FROM refresh_tokens WHERE token_hash = ? AND used)
+            """;
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM refresh_tokens
+            WHERE token_hash IN (
+                SELECT token_hash FROM refresh_tokens
+                WHERE expires_at <= ?
+                ORDER BY expires_at
+                LIMIT ?
+            )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RefreshTokenRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(byte[] tokenHash, UUID familyId, long userId, Instant expiresAt) {
+        jdbcTemplate.update(INSERT, tokenHash, familyId, userId, Timestamp.from(expiresAt));
+    }
+
+    public boolean rotate(byte[] oldHash, byte[] newHash, Instant now, Instant expiresAt) {
+        return jdbcTemplate.update(ROTATE, oldHash, Timestamp.from(now), newHash, Timestamp.from(expiresAt)) == 1;
+    }
+
+    public int deleteFamilyOfUsed(byte[] tokenHash) {
+        return jdbcTemplate.update(DELETE_FAMILY_OF_USED, tokenHash);
+    }
+
+    public int deleteExpired(Instant now, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(now), limit);
+    }
+}
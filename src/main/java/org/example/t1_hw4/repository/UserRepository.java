@@ -1,13 +1,82 @@
 package org.example.t1_hw4.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.t1_hw4.dto.UserCredentials;
+import org.example.t1_hw4.dto.UserTokenVersion;
 import org.example.t1_hw4.model.User;
+import org.example.t1_hw4.model.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByLogin(String login);
+
+    @Transactional(readOnly = true)
+    @Query("select new org.example.t1_hw4.dto.UserCredentials(u.id, u.login, u.passwordDigest, u.role, u.tokenVersion) " +
+            "from User u where u.login = :login")
+    Optional<UserCredentials> findCredentialsByLogin(@Param("login") String login);
+
+    @Transactional(readOnly = true)
+    boolean existsByLogin(String login);
+
+    @Query("select u.login from User u where u.login in :logins")
+    Set<String> findExistingLogins(@Param("logins") Collection<String> logins);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u.login from User u")
+    Stream<String> streamAllLogins();
+
+    @Transactional(readOnly = true)
+    @Query("select u.login from User u where u.createdAt >= :since order by u.createdAt, u.id")
+    List<String> findLoginsCreatedSince(@Param("since") Instant since, Pageable page);
+
+    @Transactional
     void deleteByLogin(String login);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.passwordDigest = :passwordDigest where u.id = :id")
+    int updatePasswordDigest(@Param("id") long id, @Param("passwordDigest") String passwordDigest);
+
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1, u.tokenVersionUpdatedAt = :now " +
+            "where u.login = :login")
+    int incrementTokenVersion(@Param("login") String login, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update User u set u.role = :role, u.tokenVersion = u.tokenVersion + 1, u.tokenVersionUpdatedAt = :now " +
+            "where u.login = :login")
+    int updateRole(@Param("login") String login, @Param("role") UserRole role, @Param("now") Instant now);
+
+    @Query("select new org.example.t1_hw4.dto.UserTokenVersion(u.id, u.tokenVersion, u.tokenVersionUpdatedAt) " +
+            "from User u where u.login = :login")
+    Optional<UserTokenVersion> findTokenVersionByLogin(@Param("login") String login);
+
+    @Transactional(readOnly = true)
+    @Query("select new org.example.t1_hw4.dto.UserTokenVersion(u.id, u.tokenVersion, u.tokenVersionUpdatedAt) " +
+            "from User u where u.tokenVersionUpdatedAt >= :since")
+    List<UserTokenVersion> findTokenVersionsChangedSince(@Param("since") Instant since);
 }
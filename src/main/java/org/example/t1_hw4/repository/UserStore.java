@@ -0,0 +1,17 @@
+package org.example.t1_hw4.repository;
+
+import org.example.t1_hw4.dto.UserCredentials;
+import org.example.t1_hw4.model.User;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// The user reads and writes AuthService needs, backed by JPA on the servlet stack and by R2DBC on the reactive one.
+// A duplicate login or email fails the future with DataIntegrityViolationException.
+public interface UserStore {
+    CompletableFuture<Void> save(User user);
+
+    CompletableFuture<Optional<UserCredentials>> findCredentialsByLogin(String login);
+
+    CompletableFuture<Void> updatePasswordDigest(long id, String passwordDigest);
+}
@@ -0,0 +1,107 @@
+package org.example.t1_hw4.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs the blocking work of /login and /register after hashing. Unlike applicationTaskExecutor it is bounded:
+// when full it rejects with RejectedExecutionException, which AuthService answers with 503.
+// With spring.threads.virtual.enabled every continuation gets its own virtual thread and only the number in flight
+// is capped, otherwise a fixed pool of platform threads with a bounded queue does the work.
+// Not an Executor bean itself, so the auto-configured applicationTaskExecutor does not back off.
+@Component
+public class AuthContinuationPool {
+
+    @Value("${app.auth-executor.threads}")
+    private int threads;
+
+    @Value("${app.auth-executor.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${app.auth-executor.virtual-max-concurrency}")
+    private int virtualMaxConcurrency;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor platformExecutor;
+    private Executor executor;
+
+    public AuthContinuationPool(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreads) {
+            Semaphore permits = new Semaphore(virtualMaxConcurrency);
+            executor = new BoundedVirtualExecutor(new VirtualThreadTaskExecutor("auth-continuation-"), permits);
+            Gauge.builder("auth.continuation.active", permits,
+                            semaphore -> virtualMaxConcurrency - semaphore.availablePermits())
+                    .register(meterRegistry);
+            return;
+        }
+
+        platformExecutor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("auth-continuation-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor = platformExecutor;
+
+        Gauge.builder("auth.continuation.queue.depth", platformExecutor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.continuation.active", platformExecutor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (platformExecutor != null) {
+            platformExecutor.shutdown();
+        }
+    }
+
+    public Executor executor() {
+        return executor;
+    }
+
+    // a virtual thread per task, with the permit released when the task ends however it ends
+    record BoundedVirtualExecutor(Executor virtualThreads, Semaphore permits) implements Executor {
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Too many auth continuations in flight");
+            }
+            try {
+                virtualThreads.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.t1_hw4.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.t1_hw4.audit.LoginAuditEvent;
+import org.example.t1_hw4.audit.LoginAuditPipeline;
+import org.example.t1_hw4.dto.LoginDTO;
+import org.example.t1_hw4.dto.RegisterDTO;
+import org.example.t1_hw4.dto.UserCredentials;
+import org.example.t1_hw4.jwt.JwtPrincipal;
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.jwt.RefreshTokenService;
+import org.example.t1_hw4.jwt.TokenSubject;
+import org.example.t1_hw4.jwt.UserTokenEpochs;
+import org.example.t1_hw4.mapper.UserMapper;
+import org.example.t1_hw4.model.User;
+import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.ratelimit.RateLimiter;
+import org.example.t1_hw4.ratelimit.RateLimiters;
+import org.example.t1_hw4.repository.UserStore;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.BindingResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+// The /register, /login, /refresh, /logout and /sessions/revoke-all flow behind UserController and
+// ReactiveUserController, which only resolve the client address and adapt the responses to their stack.
+// Hashing runs on PasswordHashingService, the blocking steps after it on AuthContinuationPool, and a rejection
+// by either pool becomes a 503 here.
+@Service
+public class AuthService {
+
+    private final UserStore userStore;
+    private final PasswordHashingService passwordHashingService;
+    private final AuthContinuationPool continuationPool;
+    private final KnownLoginsFilter knownLoginsFilter;
+    private final RateLimiters rateLimiters;
+    private final UserMapper userMapper;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserTokenEpochs userTokenEpochs;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginAuditPipeline loginAudit;
+
+    private final Counter loginSucceeded;
+    private final Counter loginUserNotFound;
+    private final Counter loginBadPassword;
+    private final Counter loginRateLimited;
+    private final Counter refreshSucceeded;
+    private final Counter refreshInvalidToken;
+    private final Counter refreshRejected;
+
+    public AuthService(UserStore userStore,
+                       PasswordHashingService passwordHashingService,
+                       AuthContinuationPool continuationPool,
+                       KnownLoginsFilter knownLoginsFilter,
+                       RateLimiters rateLimiters,
+                       UserMapper userMapper,
+                       JwtTokenProvider jwtTokenProvider,
+                       UserTokenEpochs userTokenEpochs,
+                       RefreshTokenService refreshTokenService,
+                       LoginAuditPipeline loginAudit,
+                       MeterRegistry meterRegistry) {
+        this.userStore = userStore;
+        this.passwordHashingService = passwordHashingService;
+        this.continuationPool = continuationPool;
+        this.knownLoginsFilter = knownLoginsFilter;
+        this.rateLimiters = rateLimiters;
+        this.userMapper = userMapper;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userTokenEpochs = userTokenEpochs;
+        this.refreshTokenService = refreshTokenService;
+        this.loginAudit = loginAudit;
+
+        this.loginSucceeded = outcome(meterRegistry, "auth.login", "success");
+        this.loginUserNotFound = outcome(meterRegistry, "auth.login", "user_not_found");
+        this.loginBadPassword = outcome(meterRegistry, "auth.login", "bad_password");
+        this.loginRateLimited = outcome(meterRegistry, "auth.login", "rate_limited");
+        this.refreshSucceeded = outcome(meterRegistry, "auth.refresh", "success");
+        this.refreshInvalidToken = outcome(meterRegistry, "auth.refresh", "invalid_token");
+        this.refreshRejected = outcome(meterRegistry, "auth.refresh", "rotation_rejected");
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder(name).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    public CompletableFuture<ResponseEntity<?>> register(RegisterDTO dto) {
+        return guard(() -> passwordHashingService.encode(dto.getPassword())
+                .<ResponseEntity<?>>thenComposeAsync(digest -> {
+                    User user = userMapper.toUser(dto);
+                    user.setRole(UserRole.GUEST);
+                    user.setPasswordDigest(digest);
+                    return userStore.save(user).<ResponseEntity<?>>thenApply(saved -> {
+                        knownLoginsFilter.add(user.getLogin());
+                        return ResponseEntity.status(HttpStatus.CREATED)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(userMapper.toUserDTO(user));
+                    });
+                }, continuationPool.executor()));
+    }
+
+    public CompletableFuture<ResponseEntity<?>> login(LoginDTO dto, String clientIp) {
+        long waitNanos = rateLimiters.acquireForLogin(dto.getLogin());
+        if (waitNanos != RateLimiter.ALLOWED) {
+            loginRateLimited.increment();
+            loginAudit.publish(LoginAuditEvent.login("rate_limited", dto.getLogin(), null, clientIp));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimiters.retryAfterSeconds(waitNanos)))
+                    .body(List.of("Too many login attempts, try again later")));
+        }
+
+        CompletableFuture<Optional<UserCredentials>> credentials = knownLoginsFilter.mightExist(dto.getLogin())
+                ? userStore.findCredentialsByLogin(dto.getLogin())
+                : CompletableFuture.completedFuture(Optional.empty());
+
+        return guard(() -> credentials.<ResponseEntity<?>>thenCompose(found -> {
+            if (found.isEmpty()) {
+                loginUserNotFound.increment();
+                loginAudit.publish(LoginAuditEvent.login("user_not_found", dto.getLogin(), null, clientIp));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(List.of("User doesn't exist")));
+            }
+            return checkPassword(dto, found.get(), clientIp);
+        }));
+    }
+
+    private CompletableFuture<ResponseEntity<?>> checkPassword(LoginDTO dto, UserCredentials user, String clientIp) {
+        return passwordHashingService.verify(dto.getPassword(), user.passwordDigest())
+                .<ResponseEntity<?>>thenComposeAsync(check -> {
+                    if (!check.matches()) {
+                        loginBadPassword.increment();
+                        loginAudit.publish(LoginAuditEvent.login("bad_password", user.login(), user.id(), clientIp));
+                        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(List.of("Invalid password")));
+                    }
+                    if (check.upgradedDigest() == null) {
+                        return CompletableFuture.completedFuture(issueTokens(user, clientIp));
+                    }
+                    // the R2DBC store completes on a driver thread, issuing the tokens writes through JDBC
+                    return userStore.updatePasswordDigest(user.id(), check.upgradedDigest())
+                            .thenApplyAsync(updated -> issueTokens(user, clientIp), continuationPool.executor());
+                }, continuationPool.executor());
+    }
+
+    private ResponseEntity<?> issueTokens(UserCredentials user, String clientIp) {
+        TokenSubject subject = new TokenSubject(user.login(), user.id(), user.tokenVersion(), user.role());
+        String accessToken = jwtTokenProvider.generateAccessToken(subject);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(subject);
+        refreshTokenService.register(refreshToken, user.id());
+        loginSucceeded.increment();
+        loginAudit.publish(LoginAuditEvent.login("success", user.login(), user.id(), clientIp));
+
+        return ResponseEntity.ok()
+                .body(Map.of(
+                        "username", user.login(),
+                        "role", user.role(),
+                        "accessToken", accessToken,
+                        "refreshToken", refreshToken
+                ));
+    }
+
+    // blocking: the servlet controller calls it on the request thread, the reactive one through offload
+    public ResponseEntity<?> refresh(String refreshToken, String clientIp) {
+        Optional<JwtPrincipal> principal = jwtTokenProvider.resolvePrincipal(refreshToken);
+        if (principal.isEmpty()) {
+            refreshInvalidToken.increment();
+            loginAudit.publish(LoginAuditEvent.refresh("invalid_token", null, null, clientIp));
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
+
+        JwtPrincipal refreshPrincipal = principal.get();
+        TokenSubject subject = new TokenSubject(
+                refreshPrincipal.subject(), refreshPrincipal.userId(), refreshPrincipal.tokenVersion(),
+                refreshPrincipal.role());
+        Long auditUserId = refreshPrincipal.hasUserId() ? refreshPrincipal.userId() : null;
+
+        String newRefreshToken = jwtTokenProvider.generateRefreshToken(subject);
+        if (!refreshTokenService.rotate(refreshToken, newRefreshToken)) {
+            refreshRejected.increment();
+            loginAudit.publish(LoginAuditEvent.refresh("rotation_rejected", subject.login(), auditUserId, clientIp));
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
+
+        String newAccessToken = jwtTokenProvider.generateAccessToken(subject);
+        refreshSucceeded.increment();
+        loginAudit.publish(LoginAuditEvent.refresh("success", subject.login(), auditUserId, clientIp));
+        return ResponseEntity.ok(Map.of(
+                "accessToken", newAccessToken,
+                "refreshToken", newRefreshToken
+        ));
+    }
+
+    public ResponseEntity<?> logout(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwtTokenProvider.blacklistToken(authHeader.substring(7));
+        }
+        return ResponseEntity.ok(Map.of("message", "Successfully logged out"));
+    }
+
+    public ResponseEntity<?> revokeAllSessions(String login) {
+        if (userTokenEpochs.revokeAll(login).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of("User not found"));
+        }
+        return ResponseEntity.ok(Map.of("message", "All sessions revoked"));
+    }
+
+    // runs one of the blocking steps above on the continuation pool, for callers that must not block
+    public CompletableFuture<ResponseEntity<?>> offload(Supplier<ResponseEntity<?>> step) {
+        return guard(() -> CompletableFuture.supplyAsync(step, continuationPool.executor()));
+    }
+
+    public ResponseEntity<?> badRequest(BindingResult bindingResult) {
+        List<String> errors = bindingResult.getFieldErrors()
+                .stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .toList();
+        return ResponseEntity.badRequest().body(errors);
+    }
+
+    public ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                .body(List.of("Server is busy, try again later"));
+    }
+
+    // both pools reject when their bounded queues are full, either while the flow is being assembled
+    // or later from inside a stage
+    private CompletableFuture<ResponseEntity<?>> guard(Supplier<CompletableFuture<ResponseEntity<?>>> flow) {
+        CompletableFuture<ResponseEntity<?>> future;
+        try {
+            future = flow.get();
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+        return future.exceptionally(this::recover);
+    }
+
+    private ResponseEntity<?> recover(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return busy();
+        }
+        if (cause instanceof DataIntegrityViolationException e) {
+            String field = conflictingField(e);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(List.of(field + ": this " + field + " is taken"));
+        }
+        throw failure instanceof CompletionException completion ? completion : new CompletionException(cause);
+    }
+
+    // JDBC reports "Key (email)=...", the r2dbc driver only the constraint name, both name users_email_key
+    private String conflictingField(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        return message.contains("users_email_key") || message.contains("(email)") ? "email" : "login";
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.t1_hw4.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.t1_hw4.repository.UserRepository;
+import org.example.t1_hw4.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class KnownLoginsFilter {
+
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    @Value("${app.login-filter.enabled}")
+    private boolean enabled;
+
+    @Value("${app.login-filter.expected-insertions}")
+    private long expectedInsertions;
+
+    @Value("${app.login-filter.fpp}")
+    private double fpp;
+
+    @Value("${app.login-filter.sync-overlap-ms}")
+    private long syncOverlapMs;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter rejected;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private final AtomicLong insertions = new AtomicLong();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private Instant lastSync = Instant.EPOCH;
+
+    public KnownLoginsFilter(UserRepository userRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.rejected = Counter.builder("auth.login.filter.rejected").register(meterRegistry);
+        Gauge.builder("auth.login.filter.size.bytes", this, f -> f.filter == null ? 0 : f.filter.sizeInBytes())
+                .register(meterRegistry);
+        Gauge.builder("auth.login.filter.insertions", insertions, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("auth.login.filter.fpp", this, KnownLoginsFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+    }
+
+    public boolean mightExist(String login) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(login)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void add(String login) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(login);
+            insertions.incrementAndGet();
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(login);
+        }
+    }
+
+    // Picks up users registered on other nodes. Ids come from per-node sequence blocks and say nothing
+    // about commit order, so the poll goes by created_at and re-reads syncOverlapMs before the last poll
+    // to catch rows whose transaction started earlier but committed after it.
+    @Scheduled(fixedDelayString = "${app.login-filter.sync-interval-ms}")
+    public void sync() {
+        if (!enabled || filter == null) {
+            return;
+        }
+
+        syncLock.lock();
+        try {
+            Instant now = Instant.now();
+            Instant since = lastSync.minusMillis(syncOverlapMs);
+            List<String> batch;
+            int page = 0;
+            do {
+                batch = userRepository.findLoginsCreatedSince(since, PageRequest.of(page++, SYNC_BATCH_SIZE));
+                for (String login : batch) {
+                    if (!filter.mightContain(login)) {
+                        add(login);
+                    }
+                }
+            } while (batch.size() == SYNC_BATCH_SIZE);
+            lastSync = now;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.login-filter.rebuild-interval-ms}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant startedAt = Instant.now();
+        long users = userRepository.count();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, users * 2), fpp);
+        // registrations that commit while the table is being streamed are put into both filters
+        building = rebuilt;
+        try {
+            long streamed = readOnlyTransaction.execute(status -> {
+                long[] count = new long[1];
+                try (Stream<String> logins = userRepository.streamAllLogins()) {
+                    logins.forEach(login -> {
+                        rebuilt.put(login);
+                        count[0]++;
+                    });
+                }
+                return count[0];
+            });
+            syncLock.lock();
+            try {
+                filter = rebuilt;
+                insertions.set(streamed);
+                if (startedAt.isAfter(lastSync)) {
+                    lastSync = startedAt;
+                }
+            } finally {
+                syncLock.unlock();
+            }
+        } finally {
+            building = null;
+        }
+    }
+
+    private double expectedFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current == null ? 1.0 : current.expectedFalsePositiveRate(insertions.get());
+    }
+}
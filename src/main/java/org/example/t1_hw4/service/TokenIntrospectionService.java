@@ -0,0 +1,77 @@
+package org.example.t1_hw4.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.t1_hw4.dto.IntrospectionResultDTO;
+import org.example.t1_hw4.jwt.JwtPrincipal;
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class TokenIntrospectionService {
+
+    @Value("${app.introspection.parallel-threshold}")
+    private int parallelThreshold;
+
+    @Value("${app.introspection.max-cache-ttl-seconds}")
+    private long maxCacheTtlSeconds;
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    private ForkJoinPool pool;
+
+    public TokenIntrospectionService(JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public List<IntrospectionResultDTO> introspect(List<String> tokens) {
+        long now = System.currentTimeMillis();
+        if (tokens.size() < parallelThreshold) {
+            return tokens.stream().map(token -> introspect(token, now)).toList();
+        }
+
+        try {
+            return pool.submit(() -> tokens.parallelStream().map(token -> introspect(token, now)).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Token introspection interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Token introspection failed", e.getCause());
+        }
+    }
+
+    private IntrospectionResultDTO introspect(String token, long now) {
+        return jwtTokenProvider.resolvePrincipal(token)
+                .map(principal -> active(principal, now))
+                .orElseGet(IntrospectionResultDTO::new);
+    }
+
+    private IntrospectionResultDTO active(JwtPrincipal principal, long now) {
+        IntrospectionResultDTO result = new IntrospectionResultDTO();
+        result.setActive(true);
+        result.setSubject(principal.subject());
+        result.setRole(principal.role() != null ? principal.role().name() : null);
+        result.setExp(TimeUnit.MILLISECONDS.toSeconds(principal.expiresAt()));
+        // a cached positive result must not outlive the token, and the cap bounds how long a revocation
+        // can go unnoticed by the gateway
+        long secondsLeft = TimeUnit.MILLISECONDS.toSeconds(principal.expiresAt() - now);
+        result.setCacheTtlSeconds(Math.max(0, Math.min(secondsLeft, maxCacheTtlSeconds)));
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.t1_hw4.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.t1_hw4.dto.RegisterDTO;
+import org.example.t1_hw4.dto.UserImportResultDTO;
+import org.example.t1_hw4.mapper.UserMapper;
+import org.example.t1_hw4.model.User;
+import org.example.t1_hw4.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+public class UserImportService {
+
+    @Value("${app.import.chunk-size}")
+    private int chunkSize;
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final KnownLoginsFilter knownLoginsFilter;
+
+    private ForkJoinPool hashingPool;
+
+    public UserImportService(UserRepository userRepository,
+                             UserMapper userMapper,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             KnownLoginsFilter knownLoginsFilter) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.knownLoginsFilter = knownLoginsFilter;
+    }
+
+    @PostConstruct
+    public void init() {
+        hashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public void importUsers(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            RegisterDTO dto;
+            try {
+                dto = objectMapper.readValue(line, RegisterDTO.class);
+            } catch (JsonProcessingException e) {
+                write(output, result(lineNumber, null, "invalid", List.of("malformed row")));
+                continue;
+            }
+
+            List<String> errors = validator.validate(dto).stream()
+                    .map(this::formatViolation)
+                    .sorted()
+                    .toList();
+            if (!errors.isEmpty()) {
+                write(output, result(lineNumber, dto.getLogin(), "invalid", errors));
+                continue;
+            }
+
+            chunk.add(new ImportRow(lineNumber, dto));
+            if (chunk.size() == chunkSize) {
+                writeAll(output, importChunk(chunk));
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeAll(output, importChunk(chunk));
+        }
+    }
+
+    private List<UserImportResultDTO> importChunk(List<ImportRow> chunk) {
+        List<UserImportResultDTO> results = new ArrayList<>(chunk.size());
+        Set<String> existingLogins = new HashSet<>(userRepository.findExistingLogins(
+                chunk.stream().map(row -> row.dto().getLogin()).toList()));
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(row -> row.dto().getEmail()).toList()));
+
+        List<ImportRow> accepted = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            boolean loginTaken = !existingLogins.add(row.dto().getLogin());
+            boolean emailTaken = !existingEmails.add(row.dto().getEmail());
+            if (loginTaken || emailTaken) {
+                List<String> errors = new ArrayList<>();
+                if (loginTaken) errors.add("login: this login is taken");
+                if (emailTaken) errors.add("email: this email is taken");
+                results.add(result(row.line(), row.dto().getLogin(), "duplicate", errors));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<String> digests = hashPasswords(accepted);
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            users.add(toUser(accepted.get(i).dto(), digests.get(i)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+            for (ImportRow row : accepted) {
+                knownLoginsFilter.add(row.dto().getLogin());
+                results.add(result(row.line(), row.dto().getLogin(), "created", null));
+            }
+        } catch (DataIntegrityViolationException e) {
+            for (int i = 0; i < accepted.size(); i++) {
+                results.add(insertOne(accepted.get(i), digests.get(i)));
+            }
+        }
+        return results;
+    }
+
+    // A concurrent /register can take a login between the duplicate check and the batch
+    // insert; the chunk is then retried row by row so only the conflicting rows fail.
+    private UserImportResultDTO insertOne(ImportRow row, String digest) {
+        try {
+            userRepository.saveAndFlush(toUser(row.dto(), digest));
+            knownLoginsFilter.add(row.dto().getLogin());
+            return result(row.line(), row.dto().getLogin(), "created", null);
+        } catch (DataIntegrityViolationException e) {
+            return result(row.line(), row.dto().getLogin(), "duplicate", null);
+        }
+    }
+
+    private List<String> hashPasswords(List<ImportRow> rows) {
+        try {
+            return hashingPool.submit(() -> rows.parallelStream()
+                    .map(row -> passwordEncoder.encode(row.dto().getPassword()))
+                    .toList()
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash passwords", e.getCause());
+        }
+    }
+
+    private User toUser(RegisterDTO dto, String digest) {
+        User user = userMapper.toUser(dto);
+        user.setPasswordDigest(digest);
+        return user;
+    }
+
+    private String formatViolation(ConstraintViolation<RegisterDTO> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private UserImportResultDTO result(long line, String login, String status, List<String> errors) {
+        UserImportResultDTO result = new UserImportResultDTO();
+        result.setLine(line);
+        result.setLogin(login);
+        result.setStatus(status);
+        result.setErrors(errors);
+        return result;
+    }
+
+    private void writeAll(OutputStream output, List<UserImportResultDTO> results) throws IOException {
+        for (UserImportResultDTO result : results) {
+            objectMapper.writeValue(new NonClosingOutputStream(output), result);
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private void write(OutputStream output, UserImportResultDTO result) throws IOException {
+        writeAll(output, List.of(result));
+    }
+
+    private record ImportRow(long line, RegisterDTO dto) {
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
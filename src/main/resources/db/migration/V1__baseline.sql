@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    login           VARCHAR(255) CONSTRAINT users_login_key UNIQUE,
+    password_digest VARCHAR(255),
+    email           VARCHAR(255) CONSTRAINT users_email_key UNIQUE,
+    role            SMALLINT CHECK (role BETWEEN 0 AND 2)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    jti        UUID                        NOT NULL CONSTRAINT revoked_tokens_jti_key UNIQUE,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
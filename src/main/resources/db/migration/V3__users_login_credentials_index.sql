@@ -0,0 +1,2 @@
+CREATE UNIQUE INDEX IF NOT EXISTS users_login_credentials_idx
+    ON users (login) INCLUDE (id, password_digest, role);
@@ -0,0 +1,9 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version_updated_at TIMESTAMP(6) WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS users_token_version_updated_at_idx
+    ON users (token_version_updated_at) WHERE token_version_updated_at IS NOT NULL;
+
+DROP INDEX IF EXISTS users_login_credentials_idx;
+CREATE UNIQUE INDEX users_login_credentials_idx
+    ON users (login) INCLUDE (id, password_digest, role, token_version);
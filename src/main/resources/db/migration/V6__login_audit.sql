@@ -0,0 +1,13 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_login_at TIMESTAMP(6) WITH TIME ZONE;
+
+CREATE TABLE login_audit (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type  VARCHAR(16)                 NOT NULL,
+    outcome     VARCHAR(32)                 NOT NULL,
+    login       VARCHAR(255),
+    user_id     BIGINT,
+    client_ip   VARCHAR(64),
+    occurred_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX login_audit_login_occurred_at_idx ON login_audit (login, occurred_at);
@@ -0,0 +1,236 @@
+package org.example.t1_hw4;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.t1_hw4.dto.LoginDTO;
+import org.example.t1_hw4.dto.RegisterDTO;
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The auth flow scenarios both stacks must pass, kept only here: ServletAuthFlowTests runs them through MockMvc,
+// ReactiveAuthFlowTests against the WebFlux + R2DBC profile. T1Hw4ApplicationTests keeps the servlet-only parts
+// (admin endpoints, introspection, audit, actuator).
+abstract class AuthFlowScenarios {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    JwtTokenProvider jwtTokenProvider;
+
+    protected abstract WebTestClient client();
+
+    @AfterEach
+    void deleteUsers() {
+        userRepository.deleteByLogin("test");
+        userRepository.deleteByLogin("other");
+        userRepository.deleteByLogin("admin");
+        userRepository.deleteByLogin("concurrent");
+    }
+
+    private WebTestClient.ResponseSpec register(String login, String email) {
+        RegisterDTO registerDTO = new RegisterDTO();
+        registerDTO.setLogin(login);
+        registerDTO.setPassword("12345678");
+        registerDTO.setEmail(email);
+
+        return client().post().uri("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(registerDTO)
+                .exchange();
+    }
+
+    private JsonNode login(String login) {
+        LoginDTO loginDTO = new LoginDTO();
+        loginDTO.setLogin(login);
+        loginDTO.setPassword("12345678");
+
+        return client().post().uri("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec refresh(String refreshToken) {
+        return client().post().uri("/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("refreshToken", refreshToken))
+                .exchange();
+    }
+
+    @Test
+    void testValidUserRegistration() {
+        client().post().uri("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("login", "test", "password", "testtest", "email", "test@gmail.com", "role", "ADMIN"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.login").isEqualTo("test")
+                .jsonPath("$.role").isEqualTo("GUEST");
+    }
+
+    @Test
+    void testNotValidUserRegistration() {
+        client().post().uri("/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("login", "", "password", "", "email", "", "role", "ADMIN"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testDuplicateRegistrationIsAConflict() {
+        register("test", "test@gmail.com").expectStatus().isCreated();
+
+        register("test", "other@gmail.com")
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$[0]").isEqualTo("login: this login is taken");
+        register("other", "test@gmail.com")
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$[0]").isEqualTo("email: this email is taken");
+    }
+
+    @Test
+    void testValidUserRegisterAndLogin() {
+        register("admin", "admin@gmail.com").expectStatus().isCreated();
+
+        JsonNode loginJson = login("admin");
+
+        assertEquals("admin", loginJson.get("username").asText());
+        assertNotNull(loginJson.get("accessToken"));
+    }
+
+    @Test
+    void testOnTokenRefresh() {
+        register("admin", "admin@gmail.com").expectStatus().isCreated();
+        JsonNode loginJson = login("admin");
+
+        JsonNode refreshJson = refresh(loginJson.get("refreshToken").asText())
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotEquals(loginJson.get("accessToken").asText(), refreshJson.get("accessToken").asText(),
+                "Access token should be refreshed and different");
+    }
+
+    @Test
+    void testRegisterLoginLogoutAndRefreshBlockedToken() {
+        register("admin", "admin@gmail.com").expectStatus().isCreated();
+        String refreshToken = login("admin").get("refreshToken").asText();
+
+        client().post().uri("/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Successfully logged out");
+
+        refresh(refreshToken).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testProtectedEndpointsRequireAToken() {
+        client().post().uri("/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testRevokeAllSessionsRejectsOutstandingTokens() {
+        register("test", "test@gmail.com").expectStatus().isCreated();
+        JsonNode loginJson = login("test");
+        String accessToken = loginJson.get("accessToken").asText();
+        String refreshToken = loginJson.get("refreshToken").asText();
+
+        client().post().uri("/sessions/revoke-all")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("All sessions revoked");
+
+        assertFalse(jwtTokenProvider.validateToken(accessToken));
+        client().post().uri("/sessions/revoke-all")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .exchange()
+                .expectStatus().isUnauthorized();
+        refresh(refreshToken).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testRefreshTokenReuseRevokesTheWholeFamily() {
+        register("test", "test@gmail.com").expectStatus().isCreated();
+        String refreshToken = login("test").get("refreshToken").asText();
+
+        String rotatedToken = refresh(refreshToken)
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult()
+                .getResponseBody()
+                .get("refreshToken").asText();
+        assertNotEquals(refreshToken, rotatedToken);
+
+        refresh(refreshToken).expectStatus().isUnauthorized();
+        refresh(rotatedToken).expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testConcurrentDuplicateRegistrationsCreateExactlyOneUser() throws Exception {
+        int attempts = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return register("concurrent", "concurrent@gmail.com")
+                            .expectBody()
+                            .returnResult()
+                            .getStatus()
+                            .value();
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            int conflicts = 0;
+            for (Future<Integer> result : results) {
+                int status = result.get(30, TimeUnit.SECONDS);
+                if (status == 201) created++;
+                if (status == 409) conflicts++;
+            }
+
+            assertEquals(1, created, "Exactly one registration must succeed");
+            assertEquals(attempts - 1, conflicts, "Every other registration must be rejected with 409");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.t1_hw4;
+
+import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.jwt.TokenRevocationService;
+import org.example.t1_hw4.jwt.TokenSubject;
+import org.example.t1_hw4.model.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRevocationTests {
+
+    @Test
+    void testRevocationOnOneNodeIsVisibleOnAnother() {
+        try (ConfigurableApplicationContext nodeA = startNode();
+             ConfigurableApplicationContext nodeB = startNode()) {
+            JwtTokenProvider providerA = nodeA.getBean(JwtTokenProvider.class);
+            JwtTokenProvider providerB = nodeB.getBean(JwtTokenProvider.class);
+
+            String token = providerA.generateAccessToken(new TokenSubject("cluster-user", 1, 0, UserRole.GUEST));
+            assertTrue(providerA.validateToken(token));
+            assertTrue(providerB.validateToken(token));
+
+            providerA.blacklistToken(token);
+            assertFalse(providerA.validateToken(token));
+
+            nodeB.getBean(TokenRevocationService.class).sync();
+            assertFalse(providerB.validateToken(token), "Token revoked on node A must be rejected on node B");
+        }
+    }
+
+    private ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(T1Hw4Application.class)
+                .properties(
+                        "server.port=0",
+                        "app.jwt.revocation.sync-interval-ms=3600000"
+                )
+                .run();
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.t1_hw4;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.net.InetSocketAddress;
+
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "app.rate-limit.enabled=false",
+        "app.concurrency-limit.enabled=false"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveAuthFlowTests extends AuthFlowScenarios {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Override
+    protected WebTestClient client() {
+        return webTestClient;
+    }
+
+    // the mock server exchange has no peer address, the first filter supplies one
+    private WebTestClient from(String address) {
+        InetSocketAddress remoteAddress = new InetSocketAddress(address, 40000);
+        return webTestClient.mutateWith((builder, httpHandlerBuilder, connector) ->
+                httpHandlerBuilder.filters(filters -> filters.add(0, (exchange, chain) -> chain.filter(exchange.mutate()
+                        .request(request -> request.remoteAddress(remoteAddress))
+                        .build()))));
+    }
+
+    @Test
+    void testActuatorIsOnlyOpenToManagementNetworks() {
+        from("127.0.0.1").get().uri("/actuator/metrics")
+                .exchange()
+                .expectStatus().isOk();
+
+        from("203.0.113.9").get().uri("/actuator/metrics")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
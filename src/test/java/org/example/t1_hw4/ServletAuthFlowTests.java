@@ -0,0 +1,33 @@
+package org.example.t1_hw4;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+// MockMvcWebTestClient performs the async dispatch of the CompletableFuture endpoints itself.
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=false",
+        "app.concurrency-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class ServletAuthFlowTests extends AuthFlowScenarios {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void bindClient() {
+        webTestClient = MockMvcWebTestClient.bindTo(mockMvc).build();
+    }
+
+    @Override
+    protected WebTestClient client() {
+        return webTestClient;
+    }
+}
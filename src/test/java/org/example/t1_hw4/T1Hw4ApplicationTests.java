@@ -6,9 +6,12 @@ import jakarta.transaction.Transactional;
 import org.example.t1_hw4.dto.LoginDTO;
 import org.example.t1_hw4.dto.RegisterDTO;
 import org.example.t1_hw4.jwt.JwtTokenProvider;
+import org.example.t1_hw4.jwt.TokenSubject;
+import org.example.t1_hw4.jwt.UserTokenEpochs;
 import org.example.t1_hw4.mapper.UserMapper;
 import org.example.t1_hw4.model.User;
 import org.example.t1_hw4.model.UserRole;
+import org.example.t1_hw4.repository.LoginAuditRepository;
 import org.example.t1_hw4.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,18 +19,36 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "app.rate-limit.enabled=false",
+        "app.concurrency-limit.enabled=false"
+})
 @AutoConfigureMockMvc
 class T1Hw4ApplicationTests {
 
@@ -45,189 +66,268 @@ class T1Hw4ApplicationTests {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
-    @Test
-    @Transactional
-    void testValidUserRegistration() throws Exception {
-        RegisterDTO registerDTO = new RegisterDTO();
-
-        registerDTO.setLogin("test");
-        registerDTO.setPassword("testtest");
-        registerDTO.setEmail("test@gmail.com");
-        registerDTO.setRole(UserRole.ADMIN);
+    @Autowired
+    private LoginAuditRepository loginAuditRepository;
 
-        String json = jacksonObjectMapper.writeValueAsString(registerDTO);
+    @Autowired
+    private UserTokenEpochs userTokenEpochs;
 
-        mockMvc.perform(post("/register")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content(json))
-                .andExpect(status().isCreated())
-                .andDo(print());
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
+    @AfterTransaction
+    void deleteCommittedUsers() {
         userRepository.deleteByLogin("test");
+        userRepository.deleteByLogin("admin");
     }
 
-    @Test
-    @Transactional
-    void testNotValidUserRegistration() throws Exception {
-        String json = jacksonObjectMapper.writeValueAsString(
-                Map.of(
-                        "login", "",
-                        "password", "",
-                        "email", "",
-                        "role", "ADMIN"
-                )
-        );
-
-        mockMvc.perform(post("/register")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content(json))
-                .andExpect(status().isBadRequest())
-                .andDo(print());
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
     }
 
-    @Test
-    @Transactional
-    void testValidUserRegisterAndLogin() throws Exception {
+    // registers the user with password 12345678 and <login>@gmail.com, grants the role out of band the way an
+    // operator would (registration itself always yields GUEST), then returns the /login response
+    private JsonNode registerAndLogin(String login, UserRole role) throws Exception {
         RegisterDTO registerDTO = new RegisterDTO();
-
-        registerDTO.setLogin("admin");
+        registerDTO.setLogin(login);
         registerDTO.setPassword("12345678");
-        registerDTO.setRole(UserRole.ADMIN);
-        registerDTO.setEmail("admin@gmail.com");
-
-        String json = jacksonObjectMapper.writeValueAsString(registerDTO);
+        registerDTO.setEmail(login + "@gmail.com");
 
-        mockMvc.perform(post("/register")
+        performAsync(post("/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
-                        .content(json))
+                        .content(jacksonObjectMapper.writeValueAsString(registerDTO)))
                 .andExpect(status().isCreated());
 
-        LoginDTO loginDTO = new LoginDTO();
-
-        loginDTO.setLogin("admin");
-        loginDTO.setPassword("12345678");
-
-        String jsonLogin = jacksonObjectMapper.writeValueAsString(loginDTO);
-
-        mockMvc.perform(post("/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content(jsonLogin))
-                .andExpect(status().isOk())
-                .andDo(print());
-
-        userRepository.deleteByLogin("admin");
+        if (role != UserRole.GUEST) {
+            grantRole(login, role);
+        }
+        return login(login);
     }
 
-    @Test
-    @Transactional
-    void testOnTokenRefresh() throws Exception {
-        RegisterDTO registerDTO = new RegisterDTO();
-        registerDTO.setLogin("admin");
-        registerDTO.setPassword("12345678");
-        registerDTO.setRole(UserRole.ADMIN);
-        registerDTO.setEmail("admin@gmail.com");
-
-        String json = jacksonObjectMapper.writeValueAsString(registerDTO);
-
-        mockMvc.perform(post("/register")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content(json))
-                .andExpect(status().isCreated());
-
+    private JsonNode login(String login) throws Exception {
         LoginDTO loginDTO = new LoginDTO();
-        loginDTO.setLogin("admin");
+        loginDTO.setLogin(login);
         loginDTO.setPassword("12345678");
 
-        String jsonLogin = jacksonObjectMapper.writeValueAsString(loginDTO);
-
-        MvcResult loginResult = mockMvc.perform(post("/login")
+        MvcResult loginResult = performAsync(post("/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
-                        .content(jsonLogin))
+                        .content(jacksonObjectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())
                 .andReturn();
 
-        String loginResponse = loginResult.getResponse().getContentAsString();
-        JsonNode loginJson = jacksonObjectMapper.readTree(loginResponse);
-
-        String accessToken = loginJson.get("accessToken").asText();
-        String refreshToken = loginJson.get("refreshToken").asText();
-
-        MvcResult refreshResult = mockMvc.perform(post("/refresh")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
-                .andExpect(status().isOk())
-                .andReturn();
-
-        String refreshResponse = refreshResult.getResponse().getContentAsString();
-        JsonNode refreshJson = jacksonObjectMapper.readTree(refreshResponse);
+        return jacksonObjectMapper.readTree(loginResult.getResponse().getContentAsString());
+    }
 
-        String newAccessToken = refreshJson.get("accessToken").asText();
+    // committed on its own so that /login, which runs on another thread, sees the new role
+    private void grantRole(String login, UserRole role) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> userTokenEpochs.changeRole(login, role));
+    }
 
-        assertNotEquals(accessToken, newAccessToken, "Access token should be refreshed and different");
-        userRepository.deleteByLogin("admin");
+    @Test
+    @Transactional
+    void testAdminEndpointsRequireTheAdminRoleFromTheToken() throws Exception {
+        String accessToken = registerAndLogin("test", UserRole.GUEST).get("accessToken").asText();
+        assertEquals(UserRole.GUEST.name(), jwtTokenProvider.getRoleFromToken(accessToken));
+
+        mockMvc.perform(post("/admin/users/import")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(""))
+                .andExpect(status().isForbidden());
     }
 
     @Test
     @Transactional
-    public void testRegisterLoginLogoutAndRefreshBlockedToken() throws Exception {
+    void testSelfRegistrationAsAdminStillYieldsAGuest() throws Exception {
         RegisterDTO registerDTO = new RegisterDTO();
-        registerDTO.setLogin("admin");
+        registerDTO.setLogin("test");
         registerDTO.setPassword("12345678");
+        registerDTO.setEmail("test@gmail.com");
         registerDTO.setRole(UserRole.ADMIN);
-        registerDTO.setEmail("admin@gmail.com");
 
-        String jsonRegister = jacksonObjectMapper.writeValueAsString(registerDTO);
-
-        mockMvc.perform(post("/register")
+        performAsync(post("/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON)
-                        .content(jsonRegister))
-                .andExpect(status().isCreated());
+                        .content(jacksonObjectMapper.writeValueAsString(registerDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.role").value(UserRole.GUEST.name()));
 
-        LoginDTO loginDTO = new LoginDTO();
-        loginDTO.setLogin("admin");
-        loginDTO.setPassword("12345678");
+        String accessToken = login("test").get("accessToken").asText();
+        assertEquals(UserRole.GUEST.name(), jwtTokenProvider.getRoleFromToken(accessToken));
 
-        String jsonLogin = jacksonObjectMapper.writeValueAsString(loginDTO);
+        mockMvc.perform(post("/admin/users/import")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(""))
+                .andExpect(status().isForbidden());
+    }
 
-        MvcResult loginResult = mockMvc.perform(post("/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content(jsonLogin))
+    @Test
+    void testOnlyAnAdminCanChangeARoleAndTheOldTokensAreRevoked() throws Exception {
+        try {
+            String adminToken = registerAndLogin("admin", UserRole.ADMIN).get("accessToken").asText();
+            String userToken = registerAndLogin("test", UserRole.GUEST).get("accessToken").asText();
+
+            mockMvc.perform(put("/admin/users/test/role")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"role\":\"ADMIN\"}"))
+                    .andExpect(status().isForbidden());
+
+            mockMvc.perform(put("/admin/users/test/role")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"role\":\"PREMIUM_USER\"}"))
+                    .andExpect(status().isOk());
+
+            assertFalse(jwtTokenProvider.validateToken(userToken), "Tokens with the old role must be revoked");
+            String upgradedToken = login("test").get("accessToken").asText();
+            assertEquals(UserRole.PREMIUM_USER.name(), jwtTokenProvider.getRoleFromToken(upgradedToken));
+        } finally {
+            userRepository.deleteByLogin("admin");
+            userRepository.deleteByLogin("test");
+        }
+    }
+
+    @Test
+    @Transactional
+    void testAdminBulkImportReportsEveryRow() throws Exception {
+        String accessToken = registerAndLogin("admin", UserRole.ADMIN).get("accessToken").asText();
+
+        String body = String.join("\n",
+                "{\"login\":\"imported\",\"password\":\"12345678\",\"email\":\"imported@gmail.com\",\"role\":\"GUEST\"}",
+                "{\"login\":\"admin\",\"password\":\"12345678\",\"email\":\"other@gmail.com\",\"role\":\"GUEST\"}",
+                "{\"login\":\"x\",\"password\":\"1\",\"email\":\"bad\",\"role\":\"GUEST\"}");
+
+        MvcResult importResult = mockMvc.perform(post("/admin/users/import")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
                 .andExpect(status().isOk())
                 .andReturn();
 
-        String loginResponse = loginResult.getResponse().getContentAsString();
-        JsonNode loginJson = jacksonObjectMapper.readTree(loginResponse);
-
-        String accessToken = loginJson.get("accessToken").asText();
-        String refreshToken = loginJson.get("refreshToken").asText();
-
-        assertNotNull(accessToken);
-        assertNotNull(refreshToken);
+        Map<Long, String> statuses = new HashMap<>();
+        for (String line : importResult.getResponse().getContentAsString().split("\n")) {
+            JsonNode row = jacksonObjectMapper.readTree(line);
+            statuses.put(row.get("line").asLong(), row.get("status").asText());
+        }
 
+        assertEquals(Map.of(1L, "created", 2L, "duplicate", 3L, "invalid"), statuses);
+        assertTrue(userRepository.findByLogin("imported").isPresent());
+        userRepository.deleteByLogin("imported");
+    }
 
-        mockMvc.perform(post("/logout")
-                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Successfully logged out"));
+    @Test
+    void testTokenIntrospectionReportsActiveRevokedAndExpiredTokens() throws Exception {
+        try {
+            String introspectorToken = registerAndLogin("introspector", UserRole.TOKEN_INTROSPECTOR)
+                    .get("accessToken").asText();
+            JsonNode loginJson = registerAndLogin("test", UserRole.GUEST);
+            String activeToken = loginJson.get("accessToken").asText();
+
+            String revokedToken = login("test").get("accessToken").asText();
+            jwtTokenProvider.blacklistToken(revokedToken);
+
+            User user = userRepository.findByLogin("test").orElseThrow();
+            TokenSubject subject = new TokenSubject(user.getLogin(), user.getId(), user.getTokenVersion(),
+                    user.getRole());
+            Object accessExpirationMs = ReflectionTestUtils.getField(jwtTokenProvider, "accessExpirationMs");
+            String expiredToken;
+            try {
+                ReflectionTestUtils.setField(jwtTokenProvider, "accessExpirationMs", -60_000L);
+                expiredToken = jwtTokenProvider.generateAccessToken(subject);
+            } finally {
+                ReflectionTestUtils.setField(jwtTokenProvider, "accessExpirationMs", accessExpirationMs);
+            }
+
+            mockMvc.perform(post("/admin/tokens/introspect")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + activeToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jacksonObjectMapper.writeValueAsString(Map.of("tokens", List.of(activeToken)))))
+                    .andExpect(status().isForbidden());
+
+            mockMvc.perform(post("/admin/tokens/introspect")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + introspectorToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jacksonObjectMapper.writeValueAsString(Map.of("tokens",
+                                    List.of(activeToken, revokedToken, expiredToken, "garbage")))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results[0].active").value(true))
+                    .andExpect(jsonPath("$.results[0].subject").value("test"))
+                    .andExpect(jsonPath("$.results[0].role").value("GUEST"))
+                    .andExpect(jsonPath("$.results[0].cacheTtlSeconds").value(30))
+                    .andExpect(jsonPath("$.results[1].active").value(false))
+                    .andExpect(jsonPath("$.results[2].active").value(false))
+                    .andExpect(jsonPath("$.results[3].active").value(false));
+
+            // above app.introspection.parallel-threshold the batch goes through the ForkJoinPool, order must hold
+            List<String> batch = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                batch.add(i % 2 == 0 ? activeToken : revokedToken);
+            }
+            MvcResult parallelResult = mockMvc.perform(post("/admin/tokens/introspect")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + introspectorToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jacksonObjectMapper.writeValueAsString(Map.of("tokens", batch))))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode results = jacksonObjectMapper.readTree(parallelResult.getResponse().getContentAsString())
+                    .get("results");
+            assertEquals(batch.size(), results.size());
+            for (int i = 0; i < batch.size(); i++) {
+                assertEquals(i % 2 == 0, results.get(i).get("active").asBoolean(), "result " + i);
+            }
+
+            mockMvc.perform(post("/admin/tokens/introspect")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + introspectorToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(jacksonObjectMapper.writeValueAsString(
+                                    Map.of("tokens", Collections.nCopies(1001, activeToken)))))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            userRepository.deleteByLogin("introspector");
+            userRepository.deleteByLogin("test");
+        }
+    }
 
-        mockMvc.perform(post("/refresh")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .accept(MediaType.APPLICATION_JSON)
-                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+    @Test
+    void testActuatorIsOnlyOpenToManagementNetworks() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics")
+                        .with(request -> {
+                            request.setRemoteAddr("203.0.113.9");
+                            return request;
+                        }))
                 .andExpect(status().isUnauthorized());
+    }
 
-        userRepository.deleteByLogin("admin");
-
+    @Test
+    void testSuccessfulLoginSetsLastLoginAtThroughTheAuditPipeline() throws Exception {
+        try {
+            registerAndLogin("test", UserRole.GUEST);
+
+            Instant lastLoginAt = null;
+            for (int attempt = 0; attempt < 100 && lastLoginAt == null; attempt++) {
+                Thread.sleep(100);
+                lastLoginAt = userRepository.findByLogin("test").orElseThrow().getLastLoginAt();
+            }
+            assertNotNull(lastLoginAt, "The audit writer must set last_login_at after a successful login");
+
+            User user = userRepository.findByLogin("test").orElseThrow();
+            loginAuditRepository.updateLastLogins(Map.of(user.getId(), lastLoginAt.minusSeconds(60)));
+            assertEquals(lastLoginAt, userRepository.findByLogin("test").orElseThrow().getLastLoginAt(),
+                    "An older login time must not overwrite last_login_at");
+        } finally {
+            userRepository.deleteByLogin("test");
+        }
     }
 }
@@ -0,0 +1,263 @@
+package org.example.t1_hw4.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.t1_hw4.repository.LoginAuditRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAuditPipelineTests {
+
+    private final StubLoginAuditRepository repository = new StubLoginAuditRepository();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginAuditPipeline pipeline;
+
+    @AfterEach
+    void stopPipeline() throws InterruptedException {
+        repository.release.countDown();
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    private LoginAuditPipeline start(AuditOverflowPolicy policy, int capacity, int batchSize) {
+        pipeline = new LoginAuditPipeline(repository, meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "capacity", capacity);
+        ReflectionTestUtils.setField(pipeline, "batchSize", batchSize);
+        ReflectionTestUtils.setField(pipeline, "flushIntervalMs", 100L);
+        ReflectionTestUtils.setField(pipeline, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(pipeline, "blockTimeoutMs", 5L);
+        pipeline.start();
+        return pipeline;
+    }
+
+    // the writer takes the first event and parks in insertAll, so the buffer fills up behind it
+    private void blockWriter() throws InterruptedException {
+        pipeline.publish(event("first"));
+        assertTrue(repository.writeStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    private void releaseAndStop() throws InterruptedException {
+        repository.release.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void testDropNewestDiscardsTheIncomingEvent() throws Exception {
+        start(AuditOverflowPolicy.DROP_NEWEST, 2, 100);
+        blockWriter();
+
+        pipeline.publish(event("a"));
+        pipeline.publish(event("b"));
+        pipeline.publish(event("c"));
+        assertEquals(1, dropped(AuditOverflowPolicy.DROP_NEWEST));
+
+        releaseAndStop();
+        assertEquals(List.of("first", "a", "b"), repository.writtenLogins());
+        assertEquals(4, counter("auth.audit.published"));
+        assertEquals(3, counter("auth.audit.written"));
+    }
+
+    @Test
+    void testDropOldestEvictsTheHeadOfTheBuffer() throws Exception {
+        start(AuditOverflowPolicy.DROP_OLDEST, 2, 100);
+        blockWriter();
+
+        pipeline.publish(event("a"));
+        pipeline.publish(event("b"));
+        pipeline.publish(event("c"));
+        assertEquals(1, dropped(AuditOverflowPolicy.DROP_OLDEST));
+
+        releaseAndStop();
+        assertEquals(List.of("first", "b", "c"), repository.writtenLogins());
+    }
+
+    @Test
+    void testDropOldestSpinLoopAccountsForEveryEventUnderContention() throws Exception {
+        start(AuditOverflowPolicy.DROP_OLDEST, 4, 100);
+        blockWriter();
+
+        int producers = 8;
+        int eventsPerProducer = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                results.add(executor.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < eventsPerProducer; i++) {
+                        pipeline.publish(event("contended"));
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(4, meterRegistry.get("auth.audit.buffer.size").gauge().value(), "The buffer stays full");
+        assertEquals(producers * eventsPerProducer - 4, dropped(AuditOverflowPolicy.DROP_OLDEST));
+
+        releaseAndStop();
+        assertEquals(5, counter("auth.audit.written"));
+        assertEquals(counter("auth.audit.published"),
+                counter("auth.audit.written") + dropped(AuditOverflowPolicy.DROP_OLDEST),
+                "Every published event is either written or counted as dropped");
+    }
+
+    @Test
+    void testBlockDropsAfterTheTimeout() throws Exception {
+        start(AuditOverflowPolicy.BLOCK, 1, 100);
+        blockWriter();
+
+        pipeline.publish(event("a"));
+        pipeline.publish(event("b"));
+        assertEquals(1, dropped(AuditOverflowPolicy.BLOCK));
+
+        releaseAndStop();
+        assertEquals(List.of("first", "a"), repository.writtenLogins());
+    }
+
+    @Test
+    void testBlockWaitsForTheWriterToFreeSpace() throws Exception {
+        start(AuditOverflowPolicy.BLOCK, 1, 100);
+        ReflectionTestUtils.setField(pipeline, "blockTimeoutMs", 10_000L);
+        blockWriter();
+
+        pipeline.publish(event("a"));
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            repository.release.countDown();
+        });
+        pipeline.publish(event("b"));
+        assertEquals(0, dropped(AuditOverflowPolicy.BLOCK));
+
+        pipeline.stop();
+        assertEquals(List.of("first", "a", "b"), repository.writtenLogins());
+    }
+
+    @Test
+    void testEventsAreWrittenInBatchesAndDrainedOnStop() throws Exception {
+        start(AuditOverflowPolicy.DROP_NEWEST, 100, 3);
+        blockWriter();
+
+        for (int i = 0; i < 7; i++) {
+            pipeline.publish(event("user" + i));
+        }
+
+        releaseAndStop();
+        assertEquals(List.of(1, 3, 3, 1), repository.batches.stream().map(List::size).toList());
+        assertEquals(8, counter("auth.audit.written"));
+        assertEquals(0, meterRegistry.get("auth.audit.buffer.size").gauge().value());
+        assertEquals(4, meterRegistry.get("auth.audit.flush").timer().count());
+    }
+
+    @Test
+    void testLastLoginIsTheLatestSuccessfulLoginPerUser() throws Exception {
+        start(AuditOverflowPolicy.DROP_NEWEST, 100, 100);
+        blockWriter();
+
+        Instant t0 = Instant.parse("2024-01-01T00:00:00Z");
+        pipeline.publish(login("success", 1L, t0.plusSeconds(10)));
+        pipeline.publish(login("success", 1L, t0.plusSeconds(30)));
+        pipeline.publish(login("success", 1L, t0.plusSeconds(20)));
+        pipeline.publish(login("success", 2L, t0));
+        pipeline.publish(login("bad_password", 3L, t0));
+        pipeline.publish(new LoginAuditEvent(LoginAuditEvent.Type.REFRESH, "success", "user4", 4L, null, t0));
+
+        releaseAndStop();
+        assertEquals(List.of(Map.of(1L, t0.plusSeconds(30), 2L, t0)), repository.lastLoginUpdates,
+                "An out-of-order older login must not move last_login_at back");
+    }
+
+    @Test
+    void testWriteFailuresAreCountedAndTheWriterKeepsGoing() throws Exception {
+        start(AuditOverflowPolicy.DROP_NEWEST, 100, 100);
+        repository.failNext = true;
+        blockWriter();
+
+        pipeline.publish(event("a"));
+
+        releaseAndStop();
+        assertEquals(1, counter("auth.audit.write.failures"));
+        assertEquals(List.of("a"), repository.writtenLogins());
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private double dropped(AuditOverflowPolicy policy) {
+        return meterRegistry.get("auth.audit.dropped").tag("policy", policy.name()).counter().count();
+    }
+
+    private static LoginAuditEvent event(String login) {
+        return LoginAuditEvent.refresh("success", login, null, "127.0.0.1");
+    }
+
+    private static LoginAuditEvent login(String outcome, Long userId, Instant occurredAt) {
+        return new LoginAuditEvent(LoginAuditEvent.Type.LOGIN, outcome, "user" + userId, userId, null, occurredAt);
+    }
+
+    private static class StubLoginAuditRepository extends LoginAuditRepository {
+
+        final List<List<LoginAuditEvent>> batches = new CopyOnWriteArrayList<>();
+        final List<Map<Long, Instant>> lastLoginUpdates = new CopyOnWriteArrayList<>();
+        final CountDownLatch writeStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean failNext;
+
+        StubLoginAuditRepository() {
+            super(null);
+        }
+
+        @Override
+        public void insertAll(List<LoginAuditEvent> events) {
+            writeStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("database is down");
+            }
+            batches.add(List.copyOf(events));
+        }
+
+        @Override
+        public void updateLastLogins(Map<Long, Instant> lastLogins) {
+            lastLoginUpdates.add(Map.copyOf(lastLogins));
+        }
+
+        List<String> writtenLogins() {
+            return batches.stream().flatMap(List::stream).map(LoginAuditEvent::login).toList();
+        }
+    }
+}
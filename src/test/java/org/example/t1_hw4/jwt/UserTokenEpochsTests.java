@@ -0,0 +1,62 @@
+package org.example.t1_hw4.jwt;
+
+import org.example.t1_hw4.dto.UserTokenVersion;
+import org.example.t1_hw4.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserTokenEpochsTests {
+
+    private static final long REFRESH_EXPIRATION_MS = Duration.ofMinutes(1).toMillis();
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+
+    private UserTokenEpochs epochs() {
+        UserTokenEpochs epochs = new UserTokenEpochs(userRepository, Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(epochs, "syncOverlapMs", 5_000L);
+        ReflectionTestUtils.setField(epochs, "refreshExpirationMs", REFRESH_EXPIRATION_MS);
+        return epochs;
+    }
+
+    @Test
+    void testStartupLoadOnlyReachesBackOneRefreshTokenLifetime() {
+        Instant before = Instant.now();
+        epochs().init();
+        Instant after = Instant.now();
+
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        Mockito.verify(userRepository).findTokenVersionsChangedSince(since.capture());
+        assertFalse(since.getValue().isBefore(before.minusMillis(REFRESH_EXPIRATION_MS)));
+        assertFalse(since.getValue().isAfter(after.minusMillis(REFRESH_EXPIRATION_MS)));
+    }
+
+    @Test
+    void testAnEpochOlderThanTheRefreshTokenLifetimeIsEvicted() {
+        Instant now = Instant.now();
+        Mockito.when(userRepository.findTokenVersionsChangedSince(Mockito.any())).thenReturn(List.of(
+                new UserTokenVersion(1, 3, now.minusSeconds(50)),
+                new UserTokenVersion(2, 5, now.minusSeconds(1))));
+        UserTokenEpochs epochs = epochs();
+        epochs.init();
+
+        assertEquals(2, epochs.size());
+        assertFalse(epochs.isCurrent(1, 2));
+        assertFalse(epochs.isCurrent(2, 4));
+
+        epochs.evictExpired(now.plusSeconds(30));
+
+        assertEquals(1, epochs.size());
+        assertTrue(epochs.isCurrent(1, 2), "Every token older than the evicted epoch has expired already");
+        assertFalse(epochs.isCurrent(2, 4));
+        assertTrue(epochs.isCurrent(2, 5));
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.t1_hw4.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTests {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void testRequestsOverTheLimitAreRejectedWithoutQueueing() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TARGET);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    void testLimitGrowsOnFastResponsesAndBacksOffOnSlowOnes() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, TARGET);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(TARGET / 2, now);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 10, "Fast responses must raise the limit, got " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            now += TARGET;
+            limit.tryAcquire();
+            limit.release(TARGET * 2, now);
+        }
+        assertEquals(2, limit.getLimit(), "Slow responses must back the limit off to the minimum");
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.t1_hw4.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientAddressResolverTests {
+
+    private final ClientAddressResolver resolver =
+            new ClientAddressResolver(List.of("127.0.0.1/32", "10.0.0.0/8"));
+
+    @Test
+    void testForwardedHeadersFromAnUntrustedPeerAreIgnored() {
+        assertEquals("203.0.113.9", resolver.resolve("203.0.113.9", List.of(), List.of("198.51.100.7")));
+    }
+
+    @Test
+    void testTheRightmostUntrustedHopIsTheClient() {
+        assertEquals("198.51.100.7",
+                resolver.resolve("10.0.0.1", List.of(), List.of("198.51.100.7, 10.0.0.2")));
+        assertEquals("198.51.100.7",
+                resolver.resolve("10.0.0.1", List.of(), List.of("1.1.1.1, 198.51.100.7", "10.0.0.2")),
+                "Entries a client prepends itself must not replace the hop the proxy appended");
+        assertEquals("198.51.100.7",
+                resolver.resolve("10.0.0.1", List.of(), List.of("198.51.100.7:52311")));
+    }
+
+    @Test
+    void testForwardedHeaderWinsOverXForwardedFor() {
+        assertEquals("2001:db8::1", resolver.resolve("10.0.0.1",
+                List.of("for=\"[2001:db8::1]:4711\";proto=https, for=10.0.0.2"), List.of("198.51.100.7")));
+    }
+
+    @Test
+    void testOnlyTrustedHopsFallBackToTheFirstOne() {
+        assertEquals("10.0.0.3", resolver.resolve("10.0.0.1", List.of(), List.of("10.0.0.3, 10.0.0.2")));
+        assertEquals("10.0.0.1", resolver.resolve("10.0.0.1", List.of(), List.of()));
+    }
+
+    @Test
+    void testServletAndReactiveRequestsResolveAlike() {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        servletRequest.setRemoteAddr("127.0.0.1");
+        servletRequest.addHeader("X-Forwarded-For", "198.51.100.7");
+        assertEquals("198.51.100.7", resolver.resolve(servletRequest));
+
+        MockServerHttpRequest reactiveRequest = MockServerHttpRequest.post("/login")
+                .remoteAddress(new InetSocketAddress("127.0.0.1", 40000))
+                .header("X-Forwarded-For", "198.51.100.7")
+                .build();
+        assertEquals("198.51.100.7", resolver.resolve(reactiveRequest));
+
+        MockServerHttpRequest direct = MockServerHttpRequest.post("/login")
+                .remoteAddress(new InetSocketAddress("203.0.113.9", 40000))
+                .header("X-Forwarded-For", "198.51.100.7")
+                .build();
+        assertEquals("203.0.113.9", resolver.resolve(direct));
+    }
+}
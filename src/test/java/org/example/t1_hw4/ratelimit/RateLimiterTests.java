@@ -0,0 +1,64 @@
+package org.example.t1_hw4.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTests {
+
+    @Test
+    void testBurstIsAllowedThenRequestsAreSpacedByTheRate() {
+        RateLimiter limiter = new RateLimiter(60, 3, 100);
+        long now = 0;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("user", now));
+        }
+        long wait = limiter.tryAcquire("user", now);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("user", now + wait));
+        assertNotEquals(RateLimiter.ALLOWED, limiter.tryAcquire("user", now + wait));
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("other", now));
+    }
+
+    @Test
+    void testIdleKeysAreEvicted() {
+        RateLimiter limiter = new RateLimiter(60, 1, 2);
+
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 0);
+        assertEquals(2, limiter.size());
+
+        limiter.evictIdle(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.size());
+
+        limiter.tryAcquire("a", TimeUnit.SECONDS.toNanos(1));
+        limiter.tryAcquire("b", TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void testUnseenKeysShareAnOverflowBucketWhenTheTableIsFull() {
+        RateLimiter limiter = new RateLimiter(60, 1, 2);
+
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 0);
+
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("c", 0));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire("d", 0),
+                "Unseen keys must be throttled together while the table is full");
+        assertEquals(2, limiter.size(), "A full table must not grow");
+
+        long later = TimeUnit.SECONDS.toNanos(5);
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("a", later), "Tracked keys keep their own bucket");
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("c", later));
+        assertEquals(2, limiter.size(), "Idle keys are only freed by the scheduled eviction");
+
+        limiter.evictIdle(TimeUnit.SECONDS.toNanos(10));
+        limiter.tryAcquire("c", TimeUnit.SECONDS.toNanos(10));
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.t1_hw4.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// BoundedVirtualExecutor over plain threads, the tests run on Java 17 as well
+class AuthContinuationPoolTests {
+
+    private static final Executor THREAD_PER_TASK = task -> new Thread(task).start();
+
+    @Test
+    void testTasksOverTheLimitAreRejectedUntilOneFinishes() throws Exception {
+        Semaphore permits = new Semaphore(2);
+        Executor executor = new AuthContinuationPool.BoundedVirtualExecutor(THREAD_PER_TASK, permits);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(finished::countDown));
+
+        release.countDown();
+        for (int attempt = 0; attempt < 100 && permits.availablePermits() == 0; attempt++) {
+            Thread.sleep(10);
+        }
+        executor.execute(finished::countDown);
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        for (int attempt = 0; attempt < 100 && permits.availablePermits() < 2; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, permits.availablePermits());
+    }
+
+    @Test
+    void testPermitIsReturnedWhenTheTaskFailsOrTheDelegateRejects() throws Exception {
+        Semaphore permits = new Semaphore(1);
+        CountDownLatch failed = new CountDownLatch(1);
+        Executor executor = new AuthContinuationPool.BoundedVirtualExecutor(task -> new Thread(() -> {
+            try {
+                task.run();
+            } finally {
+                failed.countDown();
+            }
+        }).start(), permits);
+
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        for (int attempt = 0; attempt < 100 && permits.availablePermits() == 0; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, permits.availablePermits());
+
+        Executor rejecting = new AuthContinuationPool.BoundedVirtualExecutor(task -> {
+            throw new RejectedExecutionException("shut down");
+        }, permits);
+        assertThrows(RejectedExecutionException.class, () -> rejecting.execute(() -> {
+        }));
+        assertEquals(1, permits.availablePermits());
+    }
+}
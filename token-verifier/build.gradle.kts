@@ -0,0 +1,28 @@
+plugins {
+    `java-library`
+}
+
+group = "org.example"
+version = "0.0.1-SNAPSHOT"
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(providers.gradleProperty("javaVersion").getOrElse("17").toInt())
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    api("com.nimbusds:nimbus-jose-jwt:9.37")
+    implementation("org.slf4j:slf4j-api:2.0.17")
+    testImplementation(platform("org.junit:junit-bom:5.12.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
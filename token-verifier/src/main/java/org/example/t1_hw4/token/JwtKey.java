@@ -0,0 +1,83 @@
+package org.example.t1_hw4.token;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+public final class JwtKey {
+
+    private final String kid;
+    private final byte[] secret;
+    private final DirectEncrypter encrypter;
+    private final DirectDecrypter decrypter;
+    private final MACSigner signer;
+    private final MACVerifier verifier;
+    private final DirectEncrypter gcmEncrypter;
+    private final DirectDecrypter gcmDecrypter;
+
+    JwtKey(String kid, byte[] secret) throws JOSEException {
+        if (secret.length < 64) {
+            throw new IllegalArgumentException("Secret must be at least 64 characters for A256CBC-HS512");
+        }
+        this.kid = kid;
+        this.secret = secret.clone();
+        this.encrypter = new DirectEncrypter(this.secret);
+        this.decrypter = new DirectDecrypter(this.secret);
+        this.signer = new MACSigner(this.secret);
+        this.verifier = new MACVerifier(this.secret);
+
+        byte[] gcmKey = deriveKey(this.secret, "A256GCM");
+        this.gcmEncrypter = new DirectEncrypter(gcmKey);
+        this.gcmDecrypter = new DirectDecrypter(gcmKey);
+    }
+
+    public String kid() {
+        return kid;
+    }
+
+    DirectEncrypter encrypter() {
+        return encrypter;
+    }
+
+    DirectDecrypter decrypter() {
+        return decrypter;
+    }
+
+    MACSigner signer() {
+        return signer;
+    }
+
+    MACVerifier verifier() {
+        return verifier;
+    }
+
+    DirectEncrypter gcmEncrypter() {
+        return gcmEncrypter;
+    }
+
+    DirectDecrypter gcmDecrypter() {
+        return gcmDecrypter;
+    }
+
+    boolean hasSecret(byte[] other) {
+        return Arrays.equals(secret, other);
+    }
+
+    private static byte[] deriveKey(byte[] secret, String label) throws JOSEException {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Failed to derive " + label + " key", e);
+        }
+    }
+}
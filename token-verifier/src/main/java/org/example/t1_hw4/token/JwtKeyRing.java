@@ -0,0 +1,151 @@
+package org.example.t1_hw4.token;
+
+import com.nimbusds.jose.JOSEException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class JwtKeyRing implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final Path path;
+    private final long retentionMs;
+
+    private volatile JwtKey activeKey;
+    private volatile Map<String, JwtKey> keys = Map.of();
+    private final Map<String, Long> retiredAt = new HashMap<>();
+
+    private WatchService watchService;
+
+    public JwtKeyRing(Path path, long retentionMs) {
+        this.path = path;
+        this.retentionMs = retentionMs;
+    }
+
+    public JwtKey activeKey() {
+        return activeKey;
+    }
+
+    public JwtKey verificationKey(String kid) {
+        return keys.get(kid);
+    }
+
+    public Collection<JwtKey> verificationKeys() {
+        return keys.values();
+    }
+
+    public synchronized void reload() throws IOException, JOSEException {
+        SortedMap<String, byte[]> secrets = readSecrets();
+        if (secrets.isEmpty()) {
+            throw new IllegalStateException("No jwt secret found at " + path);
+        }
+
+        Map<String, JwtKey> current = keys;
+        Map<String, JwtKey> next = new HashMap<>();
+        for (Map.Entry<String, byte[]> secret : secrets.entrySet()) {
+            JwtKey existing = current.get(secret.getKey());
+            next.put(secret.getKey(), existing != null && existing.hasSecret(secret.getValue())
+                    ? existing
+                    : new JwtKey(secret.getKey(), secret.getValue()));
+            retiredAt.remove(secret.getKey());
+        }
+
+        long now = System.currentTimeMillis();
+        for (JwtKey key : current.values()) {
+            if (next.containsKey(key.kid())) {
+                continue;
+            }
+            long retired = retiredAt.computeIfAbsent(key.kid(), kid -> now);
+            if (now - retired < retentionMs) {
+                next.put(key.kid(), key);
+            } else {
+                retiredAt.remove(key.kid());
+            }
+        }
+
+        keys = Map.copyOf(next);
+        activeKey = next.get(secrets.lastKey());
+        log.info("Loaded jwt key ring, active kid {}, {} verification keys", activeKey.kid(), next.size());
+    }
+
+    public synchronized void startWatching() throws IOException {
+        Path directory = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        Thread watcher = new Thread(() -> watch(watchService), "jwt-key-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                try {
+                    reload();
+                } catch (Exception e) {
+                    log.warn("Failed to reload jwt key ring, keeping the previous keys", e);
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // key ring closed
+        }
+    }
+
+    private SortedMap<String, byte[]> readSecrets() throws IOException {
+        SortedMap<String, byte[]> secrets = new TreeMap<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    String name = file.getFileName().toString();
+                    if (!name.startsWith(".")) {
+                        secrets.put(name, readSecret(file));
+                    }
+                }
+            }
+        } else {
+            byte[] secret = readSecret(path);
+            secrets.put(fingerprint(secret), secret);
+        }
+        return secrets;
+    }
+
+    private static byte[] readSecret(Path file) throws IOException {
+        return Files.readString(file).trim().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String fingerprint(byte[] secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret);
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.t1_hw4.token;
+
+import com.nimbusds.jose.util.JSONObjectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Mirrors the revocation state of the auth service by polling GET /admin/revocations,
+// so downstream services can reject revoked tokens without a call per request. The bearer token should
+// belong to a TOKEN_INTROSPECTOR service account, the feed does not need ADMIN.
+public final class RemoteRevocationList implements RevocationCheck, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteRevocationList.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final Supplier<String> bearerToken;
+    private final long idOverlap;
+    private final long timeOverlapMs;
+
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+    private final Map<Long, Long> epochs = new ConcurrentHashMap<>();
+
+    private long lastSeenId;
+    private long epochsSince;
+    private ScheduledExecutorService scheduler;
+
+    public RemoteRevocationList(URI baseUri, Supplier<String> bearerToken) {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build(), baseUri, bearerToken, 100, 5_000);
+    }
+
+    public RemoteRevocationList(HttpClient httpClient, URI baseUri, Supplier<String> bearerToken,
+                                long idOverlap, long timeOverlapMs) {
+        this.httpClient = httpClient;
+        this.endpoint = baseUri.resolve("/admin/revocations");
+        this.bearerToken = bearerToken;
+        this.idOverlap = idOverlap;
+        this.timeOverlapMs = timeOverlapMs;
+    }
+
+    @Override
+    public boolean isRevoked(TokenClaims claims) {
+        if (claims.hasUserId()) {
+            Long epoch = epochs.get(claims.userId());
+            if (epoch != null && claims.tokenVersion() < epoch) {
+                return true;
+            }
+        }
+        return !revokedJtis.isEmpty() && revokedJtis.containsKey(claims.jti());
+    }
+
+    // Like the service's own sync, ids are re-read from slightly before the last seen one
+    // and epochs from slightly before the previous poll, to pick up late commits.
+    public synchronized void refresh() throws IOException, InterruptedException {
+        long now = System.currentTimeMillis();
+        revokedJtis.values().removeIf(expiresAt -> expiresAt <= now);
+
+        long since = Math.max(0, epochsSince - timeOverlapMs);
+        int fetched;
+        do {
+            Map<String, Object> page = fetch(Math.max(0, lastSeenId - idOverlap), since);
+            List<Object> revoked = list(page, "revoked");
+            for (Object item : revoked) {
+                Map<?, ?> entry = (Map<?, ?>) item;
+                revokedJtis.put((String) entry.get("jti"), number(entry, "exp"));
+                lastSeenId = Math.max(lastSeenId, number(entry, "id"));
+            }
+            for (Object item : list(page, "epochs")) {
+                Map<?, ?> entry = (Map<?, ?>) item;
+                epochs.merge(number(entry, "uid"), number(entry, "ver"), Math::max);
+            }
+            epochsSince = number(page, "serverTime");
+            fetched = revoked.size();
+        } while (fetched == PAGE_SIZE);
+    }
+
+    public synchronized void startPolling(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revocation-list-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Failed to refresh the revocation list from {}, keeping the previous state", endpoint, e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public int size() {
+        return revokedJtis.size() + epochs.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private Map<String, Object> fetch(long after, long since) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint + "?after=" + after + "&since=" + since))
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + bearerToken.get())
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Revocation list request failed with status " + response.statusCode());
+        }
+        try {
+            return JSONObjectUtils.parse(response.body());
+        } catch (ParseException e) {
+            throw new IOException("Malformed revocation list response", e);
+        }
+    }
+
+    private static List<Object> list(Map<String, Object> page, String key) {
+        Object value = page.get(key);
+        return value instanceof List<?> items ? List.copyOf(items) : List.of();
+    }
+
+    private static long number(Map<?, ?> entry, String key) {
+        return ((Number) entry.get(key)).longValue();
+    }
+}
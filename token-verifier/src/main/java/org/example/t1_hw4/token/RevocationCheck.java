@@ -0,0 +1,9 @@
+package org.example.t1_hw4.token;
+
+@FunctionalInterface
+public interface RevocationCheck {
+
+    RevocationCheck NONE = claims -> false;
+
+    boolean isRevoked(TokenClaims claims);
+}
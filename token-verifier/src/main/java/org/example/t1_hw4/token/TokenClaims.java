@@ -0,0 +1,14 @@
+package org.example.t1_hw4.token;
+
+public record TokenClaims(String subject, String role, String jti, long expiresAt, long userId, long tokenVersion) {
+
+    public static final long NO_USER_ID = 0;
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+
+    public boolean hasUserId() {
+        return userId != NO_USER_ID;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.t1_hw4.token;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.util.Date;
+import java.util.UUID;
+
+public final class TokenIssuer {
+
+    private final JwtKeyRing keyRing;
+    private final TokenProfile profile;
+
+    public TokenIssuer(JwtKeyRing keyRing, TokenProfile profile) {
+        this.keyRing = keyRing;
+        this.profile = profile;
+    }
+
+    public TokenProfile profile() {
+        return profile;
+    }
+
+    public String issue(String subject, String role, long userId, long tokenVersion, long ttlMs) throws JOSEException {
+        Date now = new Date();
+        Date expiry = new Date(now.getTime() + ttlMs);
+
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issueTime(now)
+                .expirationTime(expiry)
+                .jwtID(UUID.randomUUID().toString())
+                .claim("uid", userId)
+                .claim("ver", tokenVersion)
+                .claim("role", role)
+                .build();
+
+        JwtKey key = keyRing.activeKey();
+
+        if (profile == TokenProfile.JWE_GCM) {
+            EncryptedJWT encryptedJWT = new EncryptedJWT(
+                    new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A256GCM).keyID(key.kid()).build(),
+                    claimsSet
+            );
+            encryptedJWT.encrypt(key.gcmEncrypter());
+            return encryptedJWT.serialize();
+        }
+
+        SignedJWT signedJWT = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.HS256).keyID(key.kid()).build(),
+                claimsSet
+        );
+        signedJWT.sign(key.signer());
+
+        if (profile == TokenProfile.JWS) {
+            return signedJWT.serialize();
+        }
+
+        JWEObject jweObject = new JWEObject(
+                new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A256CBC_HS512).keyID(key.kid()).build(),
+                new Payload(signedJWT)
+        );
+        jweObject.encrypt(key.encrypter());
+
+        return jweObject.serialize();
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.t1_hw4.token;
+
+public enum TokenProfile {
+    NESTED_JWE,
+    JWE_GCM,
+    JWS
+}
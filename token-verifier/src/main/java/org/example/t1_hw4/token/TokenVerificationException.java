@@ -0,0 +1,25 @@
+package org.example.t1_hw4.token;
+
+public class TokenVerificationException extends Exception {
+
+    public enum Reason {
+        MALFORMED,
+        INVALID
+    }
+
+    private final Reason reason;
+
+    public TokenVerificationException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public TokenVerificationException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason reason() {
+        return reason;
+    }
+}
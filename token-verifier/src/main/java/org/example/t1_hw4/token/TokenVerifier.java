@@ -0,0 +1,145 @@
+package org.example.t1_hw4.token;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.text.ParseException;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.example.t1_hw4.token.TokenVerificationException.Reason.INVALID;
+import static org.example.t1_hw4.token.TokenVerificationException.Reason.MALFORMED;
+
+// Holds no per-request state: the signers and decrypters live in the key ring and are shared by all threads.
+public final class TokenVerifier {
+
+    private final JwtKeyRing keyRing;
+    private final Set<TokenProfile> acceptedProfiles;
+
+    public TokenVerifier(JwtKeyRing keyRing, Set<TokenProfile> acceptedProfiles) {
+        this.keyRing = keyRing;
+        this.acceptedProfiles = EnumSet.copyOf(acceptedProfiles);
+    }
+
+    public boolean accepts(TokenProfile profile) {
+        return acceptedProfiles.contains(profile);
+    }
+
+    public Optional<TokenClaims> validate(String token, long nowMillis) {
+        return validate(token, nowMillis, RevocationCheck.NONE);
+    }
+
+    public Optional<TokenClaims> validate(String token, long nowMillis, RevocationCheck revocations) {
+        if (token == null) return Optional.empty();
+        TokenClaims claims;
+        try {
+            claims = verify(token);
+        } catch (TokenVerificationException e) {
+            return Optional.empty();
+        }
+        if (claims.isExpired(nowMillis) || revocations.isRevoked(claims)) {
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    // Checks the format, the key and the signature, expiry and revocation are left to the caller.
+    public TokenClaims verify(String token) throws TokenVerificationException {
+        try {
+            JWTClaimsSet claims = decodeClaims(token);
+            if (claims.getJWTID() == null || claims.getExpirationTime() == null) {
+                throw new TokenVerificationException(INVALID, "Token is missing required claims");
+            }
+            Long userId = claims.getLongClaim("uid");
+            Long tokenVersion = claims.getLongClaim("ver");
+            return new TokenClaims(
+                    claims.getSubject(),
+                    claims.getStringClaim("role"),
+                    claims.getJWTID(),
+                    claims.getExpirationTime().getTime(),
+                    userId != null ? userId : TokenClaims.NO_USER_ID,
+                    tokenVersion != null ? tokenVersion : 0
+            );
+        } catch (TokenVerificationException e) {
+            throw e;
+        } catch (ParseException e) {
+            throw new TokenVerificationException(MALFORMED, "Malformed token", e);
+        } catch (Exception e) {
+            throw new TokenVerificationException(INVALID, "Invalid token", e);
+        }
+    }
+
+    private JWTClaimsSet decodeClaims(String token) throws Exception {
+        JWT jwt = JWTParser.parse(token);
+
+        if (jwt instanceof SignedJWT signedJWT) {
+            requireAccepted(TokenProfile.JWS);
+            return verify(signedJWT, verificationKey(signedJWT.getHeader().getKeyID())).getJWTClaimsSet();
+        }
+
+        if (jwt instanceof EncryptedJWT encryptedJWT) {
+            EncryptionMethod enc = encryptedJWT.getHeader().getEncryptionMethod();
+            if (EncryptionMethod.A256GCM.equals(enc)) {
+                requireAccepted(TokenProfile.JWE_GCM);
+                encryptedJWT.decrypt(verificationKey(encryptedJWT.getHeader().getKeyID()).gcmDecrypter());
+                return encryptedJWT.getJWTClaimsSet();
+            }
+            if (EncryptionMethod.A256CBC_HS512.equals(enc)) {
+                requireAccepted(TokenProfile.NESTED_JWE);
+                return decryptAndVerify(encryptedJWT).getJWTClaimsSet();
+            }
+        }
+
+        throw new TokenVerificationException(INVALID, "Unsupported token format");
+    }
+
+    private void requireAccepted(TokenProfile profile) throws TokenVerificationException {
+        if (!acceptedProfiles.contains(profile)) {
+            throw new TokenVerificationException(INVALID, "Token profile " + profile + " is not accepted");
+        }
+    }
+
+    private JwtKey verificationKey(String kid) throws TokenVerificationException {
+        JwtKey key = kid != null ? keyRing.verificationKey(kid) : null;
+        if (key == null) {
+            throw new TokenVerificationException(INVALID, "Unknown token key " + kid);
+        }
+        return key;
+    }
+
+    private SignedJWT decryptAndVerify(JWEObject jweObject) throws Exception {
+        String kid = jweObject.getHeader().getKeyID();
+        if (kid != null) {
+            return decryptAndVerify(jweObject, verificationKey(kid));
+        }
+
+        for (JwtKey key : keyRing.verificationKeys()) {
+            try {
+                return decryptAndVerify(JWEObject.parse(jweObject.getParsedString()), key);
+            } catch (JOSEException | TokenVerificationException e) {
+                // tokens minted before key ids were introduced carry no kid, try the next key
+            }
+        }
+        throw new TokenVerificationException(INVALID, "No key matches the token");
+    }
+
+    private SignedJWT decryptAndVerify(JWEObject jweObject, JwtKey key) throws Exception {
+        jweObject.decrypt(key.decrypter());
+        return verify(jweObject.getPayload().toSignedJWT(), key);
+    }
+
+    private SignedJWT verify(SignedJWT signedJWT, JwtKey key) throws JOSEException, TokenVerificationException {
+        if (!JWSAlgorithm.HS256.equals(signedJWT.getHeader().getAlgorithm()) || !signedJWT.verify(key.verifier())) {
+            throw new TokenVerificationException(INVALID, "Invalid token signature");
+        }
+        return signedJWT;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.t1_hw4.token;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenVerifierTests {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @TempDir
+    Path directory;
+
+    private JwtKeyRing keyRing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyRing = new JwtKeyRing(Files.writeString(directory.resolve("secret"), SECRET), 60_000);
+        keyRing.reload();
+    }
+
+    @Test
+    void testEveryProfileRoundTrips() throws Exception {
+        TokenVerifier verifier = new TokenVerifier(keyRing, EnumSet.allOf(TokenProfile.class));
+
+        for (TokenProfile profile : TokenProfile.values()) {
+            String token = new TokenIssuer(keyRing, profile).issue("user", "ADMIN", 42, 3, 60_000);
+
+            TokenClaims claims = verifier.verify(token);
+            assertEquals("user", claims.subject());
+            assertEquals("ADMIN", claims.role());
+            assertEquals(42, claims.userId());
+            assertEquals(3, claims.tokenVersion());
+            assertTrue(verifier.validate(token, System.currentTimeMillis()).isPresent());
+        }
+    }
+
+    @Test
+    void testTamperedAndMalformedTokensAreRejected() throws Exception {
+        TokenVerifier verifier = new TokenVerifier(keyRing, EnumSet.of(TokenProfile.JWS));
+        String token = new TokenIssuer(keyRing, TokenProfile.JWS).issue("user", null, 1, 0, 60_000);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertEquals(TokenVerificationException.Reason.INVALID,
+                assertThrows(TokenVerificationException.class, () -> verifier.verify(tampered)).reason());
+        assertEquals(TokenVerificationException.Reason.MALFORMED,
+                assertThrows(TokenVerificationException.class, () -> verifier.verify("not-a-token")).reason());
+    }
+
+    @Test
+    void testProfilesThatAreNotAcceptedAreRejected() throws Exception {
+        TokenVerifier verifier = new TokenVerifier(keyRing, EnumSet.of(TokenProfile.NESTED_JWE));
+        String token = new TokenIssuer(keyRing, TokenProfile.JWS).issue("user", null, 1, 0, 60_000);
+
+        assertTrue(verifier.validate(token, System.currentTimeMillis()).isEmpty());
+    }
+
+    @Test
+    void testExpiredAndRevokedTokensAreNotValid() throws Exception {
+        TokenVerifier verifier = new TokenVerifier(keyRing, EnumSet.allOf(TokenProfile.class));
+        String token = new TokenIssuer(keyRing, TokenProfile.NESTED_JWE).issue("user", null, 7, 1, 60_000);
+        long now = System.currentTimeMillis();
+
+        assertTrue(verifier.validate(token, now + 120_000).isEmpty());
+        assertTrue(verifier.validate(token, now, claims -> claims.tokenVersion() < 2).isEmpty());
+        assertTrue(verifier.validate(token, now, claims -> false).isPresent());
+    }
+}